@@ -0,0 +1,110 @@
+package raylras.zen.bracket;
+
+import java.util.*;
+
+/**
+ * An immutable index of the completions of bracket handler entries,
+ * looked up by a case-insensitive prefix of the id, the path of the id or the name.
+ * <p>
+ * The keys are kept in a sorted array, so the keys starting with a prefix are found by binary search,
+ * the same way a prefix trie would find them but without the per-node allocations.
+ */
+public final class BracketCompletionIndex {
+
+    public static final BracketCompletionIndex EMPTY = new BracketCompletionIndex(new String[0], new Completion[0]);
+
+    private final String[] keys;
+    private final Completion[] completions;
+
+    private BracketCompletionIndex(String[] keys, Completion[] completions) {
+        this.keys = keys;
+        this.completions = completions;
+    }
+
+    public static BracketCompletionIndex create(BracketHandlerStore store) {
+        List<String> keyList = new ArrayList<>();
+        List<Completion> completionList = new ArrayList<>();
+        for (int entry = 0; entry < store.getEntryCount(); entry++) {
+            String id = store.getFirst(entry, "_id").orElse(null);
+            if (id == null) {
+                continue;
+            }
+            String name = store.getFirst(entry, "_name").orElse(null);
+            Completion byId = new Completion(id, id + '>', name);
+            keyList.add(id);
+            completionList.add(byId);
+            int colon = id.lastIndexOf(':');
+            if (colon >= 0 && colon < id.length() - 1) {
+                keyList.add(id.substring(colon + 1));
+                completionList.add(byId);
+            }
+            if (name != null) {
+                keyList.add(name);
+                completionList.add(new Completion(name, id + '>', id));
+            }
+        }
+
+        int size = keyList.size();
+        String[] lowerCaseKeys = new String[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            lowerCaseKeys[i] = keyList.get(i).toLowerCase(Locale.ROOT);
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> lowerCaseKeys[i]));
+        String[] keys = new String[size];
+        Completion[] completions = new Completion[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = lowerCaseKeys[order[i]];
+            completions[i] = completionList.get(order[i]);
+        }
+        return new BracketCompletionIndex(keys, completions);
+    }
+
+    /**
+     * @param prefix the text typed after {@code <}, case-insensitive
+     * @param limit the maximum number of completions returned
+     * @return the completions having a key starting with {@code prefix}, in the order of the keys
+     */
+    public List<Completion> find(String prefix, int limit) {
+        String lowerCasePrefix = prefix.toLowerCase(Locale.ROOT);
+        List<Completion> result = new ArrayList<>(Math.min(limit, 64));
+        // an entry may be found by both its id and the path of its id
+        Set<Completion> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = lowerBound(lowerCasePrefix); i < keys.length && result.size() < limit; i++) {
+            if (!keys[i].startsWith(lowerCasePrefix)) {
+                break;
+            }
+            if (seen.add(completions[i])) {
+                result.add(completions[i]);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param label the id or the name of the entry
+     * @param insertText the id of the entry with the closing {@code >}
+     * @param description the other one of the id and the name, or {@code null}
+     */
+    public record Completion(String label, String insertText, String description) {}
+
+}
@@ -1,25 +1,28 @@
 package raylras.zen.bracket;
 
-import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import raylras.zen.model.CompilationEnvironment;
 import raylras.zen.util.Watcher;
 
 import java.io.IOException;
-import java.io.Reader;
 import java.net.ConnectException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 public class BracketHandlerService {
 
     private static final Logger logger = LoggerFactory.getLogger(BracketHandlerService.class);
 
+    private static final String CACHE_FILE_NAME = "brackets.cache";
+
     private final CompilationEnvironment env;
     private List<BracketHandlerMirror> mirrors;
+    private BracketCompletionIndex completionIndex;
 
     public BracketHandlerService(CompilationEnvironment env) {
         this.env = env;
@@ -32,76 +35,66 @@ public class BracketHandlerService {
         return mirrors;
     }
 
+    /**
+     * Built once the mirrors are loaded, empty if there are none.
+     */
+    public BracketCompletionIndex getCompletionIndex() {
+        if (mirrors == null) {
+            loadMirrorsFromJson();
+        }
+        return (completionIndex != null) ? completionIndex : BracketCompletionIndex.EMPTY;
+    }
+
     public Collection<BracketHandlerEntry> getEntriesLocal() {
         return getMirrorsLocal().stream()
                 .flatMap(mirror -> mirror.entries().stream())
                 .toList();
     }
 
-    public BracketHandlerEntry queryEntryRemote(String validExpr) {
-        var watcher = Watcher.watch(() -> {
-            try {
-                return RpcClient.queryEntryProperties(validExpr);
-            } catch (ConnectException e) {
-                logger.warn("Failed to query remote <{}>, make sure your Minecraft instance is running", validExpr);
-            } catch (IOException | ExecutionException | InterruptedException e) {
-                logger.error("Failed to query remote <{}>, {}", validExpr, e.getMessage());
-            }
-            return null;
-        });
-        if (watcher.isResultPresent()) {
-            logger.info("Query remote <{}> [{}]", validExpr, watcher.getElapsedMillis());
-            return new BracketHandlerEntry(watcher.getResult());
-        } else {
-            return new BracketHandlerEntry(Collections.emptyMap());
-        }
-    }
-
-    private static final Gson GSON = createGson();
-
-    private static Gson createGson() {
-        JsonDeserializer<BracketHandlerMirror> mirrorDeserializer = (json, typeOfT, context) -> {
-            JsonObject jsonObject = json.getAsJsonObject();
-            String type = jsonObject.get("type").getAsString();
-            String regex = jsonObject.get("regex").getAsString();
-            List<BracketHandlerEntry> entries = context.deserialize(jsonObject.get("entries"), new TypeToken<List<BracketHandlerEntry>>() {}.getType());
-            return new BracketHandlerMirror(type, regex, entries);
-        };
-        JsonDeserializer<BracketHandlerEntry> entryDeserializer = (json, typeOfT, context) -> {
-            Map<String, List<String>> properties = new HashMap<>();
-            json.getAsJsonObject().asMap().forEach((key, value) -> {
-                if (value instanceof JsonArray array) {
-                    properties.put(key, context.deserialize(array, new TypeToken<List<String>>() {}.getType()));
-                } else if (value instanceof JsonPrimitive primitive) {
-                    properties.put(key, List.of(primitive.getAsString()));
-                } else {
-                    logger.warn("Unexpected type of value: {}", value);
-                }
-            });
-            return new BracketHandlerEntry(properties);
-        };
-        return new GsonBuilder()
-                .registerTypeAdapter(BracketHandlerMirror.class, mirrorDeserializer)
-                .registerTypeAdapter(BracketHandlerEntry.class, entryDeserializer)
-                .create();
+    /**
+     * @return a future never completed exceptionally, with an empty entry if the remote query fails
+     */
+    public CompletableFuture<BracketHandlerEntry> queryEntryRemote(String validExpr) {
+        return Watcher.watchAsync(() -> RpcClient.getDefault().queryEntryProperties(validExpr))
+                .handle((watcher, e) -> {
+                    if (watcher != null) {
+                        // asked on every hover, mostly answered from the cache of the client
+                        logger.debug("Query remote <{}> [{}]", validExpr, watcher.getElapsedMillis());
+                        return new BracketHandlerEntry(watcher.getResult());
+                    }
+                    Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+                    if (cause instanceof ConnectException) {
+                        logger.warn("Failed to query remote <{}>, make sure your Minecraft instance is running", validExpr);
+                    } else if (cause instanceof TimeoutException) {
+                        logger.warn("Failed to query remote <{}>, timed out", validExpr);
+                    } else {
+                        logger.error("Failed to query remote <{}>, {}", validExpr, cause.getMessage());
+                    }
+                    return new BracketHandlerEntry(Collections.emptyMap());
+                });
     }
 
     private void loadMirrorsFromJson() {
         env.getGeneratedRoot()
-                .map(root -> root.resolve("brackets.json"))
-                .filter(Files::exists)
-                .ifPresent(jsonPath -> {
-                    Watcher<List<BracketHandlerMirror>> watcher = Watcher.watch(() -> {
-                        try (Reader reader = Files.newBufferedReader(jsonPath)) {
-                            return GSON.fromJson(reader, new TypeToken<>() {});
+                .filter(root -> Files.exists(root.resolve("brackets.json")))
+                .ifPresent(root -> {
+                    Path jsonPath = root.resolve("brackets.json");
+                    Watcher<BracketHandlerStore> watcher = Watcher.watch(() -> {
+                        try {
+                            // next to the generated directory, which may be regenerated as a whole
+                            return BracketHandlerStore.load(jsonPath, root.resolveSibling(CACHE_FILE_NAME));
                         } catch (IOException e) {
                             logger.error("Failed to load bracket handler mirrors from {}", jsonPath.getFileName(), e);
                             return null;
                         }
                     });
                     if (watcher.isResultPresent()) {
-                        mirrors = watcher.getResult();
-                        logger.info("Load bracket handler mirrors from {} [{}]", jsonPath.getFileName(), watcher.getElapsedMillis());
+                        BracketHandlerStore store = watcher.getResult();
+                        var indexWatcher = Watcher.watch(() -> BracketCompletionIndex.create(store));
+                        completionIndex = indexWatcher.getResult();
+                        mirrors = store.getMirrors();
+                        logger.info("Load {} bracket handler entries from {} [{}], completion index of {} keys [{}]",
+                                store.getEntryCount(), jsonPath.getFileName(), watcher.getElapsedMillis(), completionIndex.size(), indexWatcher.getElapsedMillis());
                     }
                 });
     }
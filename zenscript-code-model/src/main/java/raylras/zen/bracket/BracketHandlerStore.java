@@ -0,0 +1,464 @@
+package raylras.zen.bracket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import raylras.zen.util.IntArray;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * The entries of {@code brackets.json} in columnar form, read straight from a binary buffer.
+ * <p>
+ * Property keys are interned into a small table, and every value is kept as the raw bytes it had in the json,
+ * decoded on access, so an entry costs a few ints instead of a map of lists.
+ * The buffer is written once to a cache file tagged with the size, the modified time and the hash of the json,
+ * and later loads map that file instead of parsing the json again, keeping the entries out of the heap.
+ * <p>
+ * The layout of the buffer, all ints and longs big-endian:
+ * <pre>
+ * header   magic, format version, json size, json modified time, json hash,
+ *          mirror count, entry count, key count, property count, value count, byte count
+ * strings  the keys, the mirror types and the mirror regexes, each as a length (-1 for null) and the UTF-8 bytes
+ * columns  mirrorEntryStart[mirrors + 1], entryPropertyStart[entries + 1], propertyKey[properties],
+ *          propertyValueStart[properties + 1], valueStart[values + 1]
+ * bytes    the raw bytes of all values
+ * </pre>
+ */
+public final class BracketHandlerStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BracketHandlerStore.class);
+
+    private static final int MAGIC = 0x5A424843; // ZBHC
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 56;
+
+    public static final BracketHandlerStore EMPTY = createEmpty();
+
+    private final ByteBuffer buffer;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final long sourceHash;
+    private final String[] mirrorTypes;
+    private final String[] mirrorRegexes;
+    private final List<String> keys;
+    private final Map<String, Integer> keyIds;
+    private final int entryCount;
+    // entries of mirror i are [mirrorEntryStart[i], mirrorEntryStart[i + 1])
+    private final int mirrorEntryStart;
+    // properties of entry i are [entryPropertyStart[i], entryPropertyStart[i + 1])
+    private final int entryPropertyStart;
+    private final int propertyKey;
+    // values of property i are [propertyValueStart[i], propertyValueStart[i + 1])
+    private final int propertyValueStart;
+    // value i is [valueStart[i], valueStart[i + 1]) of the bytes
+    private final int valueStart;
+    private final int bytes;
+
+    private BracketHandlerStore(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a bracket handler cache of version " + FORMAT_VERSION);
+        }
+        this.buffer = buffer;
+        this.sourceSize = buffer.getLong(8);
+        this.sourceModified = buffer.getLong(16);
+        this.sourceHash = buffer.getLong(24);
+        int mirrorCount = buffer.getInt(32);
+        this.entryCount = buffer.getInt(36);
+        int keyCount = buffer.getInt(40);
+        int propertyCount = buffer.getInt(44);
+        int valueCount = buffer.getInt(48);
+        int byteCount = buffer.getInt(52);
+
+        String[] strings = new String[keyCount + 2 * mirrorCount];
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt(offset);
+            offset += 4;
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                buffer.get(offset, bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                offset += length;
+            }
+        }
+        this.keys = List.of(Arrays.copyOfRange(strings, 0, keyCount));
+        Map<String, Integer> keyIds = new HashMap<>();
+        for (int i = 0; i < keyCount; i++) {
+            keyIds.put(keys.get(i), i);
+        }
+        this.keyIds = Map.copyOf(keyIds);
+        this.mirrorTypes = Arrays.copyOfRange(strings, keyCount, keyCount + mirrorCount);
+        this.mirrorRegexes = Arrays.copyOfRange(strings, keyCount + mirrorCount, strings.length);
+
+        this.mirrorEntryStart = offset;
+        this.entryPropertyStart = mirrorEntryStart + 4 * (mirrorCount + 1);
+        this.propertyKey = entryPropertyStart + 4 * (entryCount + 1);
+        this.propertyValueStart = propertyKey + 4 * propertyCount;
+        this.valueStart = propertyValueStart + 4 * (propertyCount + 1);
+        this.bytes = valueStart + 4 * (valueCount + 1);
+        if ((long) bytes + byteCount != buffer.limit()) {
+            throw new IOException("Truncated bracket handler cache");
+        }
+    }
+
+    /**
+     * Maps the cache if it was built from the same json, otherwise parses the json and rewrites the cache.
+     * A cache whose json was only touched is recognized by the hash and kept.
+     *
+     * @param jsonPath the path of {@code brackets.json}
+     * @param cachePath the path of the cache, need not exist
+     */
+    public static BracketHandlerStore load(Path jsonPath, Path cachePath) throws IOException {
+        long size = Files.size(jsonPath);
+        long modified = Files.getLastModifiedTime(jsonPath).toMillis();
+        BracketHandlerStore cached = openCache(cachePath);
+        if (cached != null && cached.sourceSize == size && cached.sourceModified == modified) {
+            return cached;
+        }
+
+        ByteBuffer json = map(jsonPath);
+        long hash = hash(json);
+        if (cached != null && cached.sourceSize == size && cached.sourceHash == hash) {
+            updateCacheModified(cachePath, modified);
+            return cached;
+        }
+        ByteBuffer built = new Loader(json).load(size, modified, hash);
+        return new BracketHandlerStore(writeCache(cachePath, built));
+    }
+
+    /**
+     * Parses the json into a heap buffer, without a cache.
+     */
+    static BracketHandlerStore read(ByteBuffer json) throws IOException {
+        return new BracketHandlerStore(new Loader(json).load(json.remaining(), 0, hash(json)));
+    }
+
+    public int getMirrorCount() {
+        return mirrorTypes.length;
+    }
+
+    public String getMirrorType(int mirror) {
+        return mirrorTypes[mirror];
+    }
+
+    public String getMirrorRegex(int mirror) {
+        return mirrorRegexes[mirror];
+    }
+
+    public int getEntryStart(int mirror) {
+        return getInt(mirrorEntryStart, mirror);
+    }
+
+    public int getEntryEnd(int mirror) {
+        return getInt(mirrorEntryStart, mirror + 1);
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public List<String> get(int entry, String key) {
+        int property = findProperty(entry, key);
+        if (property < 0) {
+            return Collections.emptyList();
+        }
+        int start = getInt(propertyValueStart, property);
+        int end = getInt(propertyValueStart, property + 1);
+        List<String> values = new ArrayList<>(end - start);
+        for (int value = start; value < end; value++) {
+            values.add(getValue(value));
+        }
+        return values;
+    }
+
+    public Optional<String> getFirst(int entry, String key) {
+        int property = findProperty(entry, key);
+        if (property < 0) {
+            return Optional.empty();
+        }
+        int start = getInt(propertyValueStart, property);
+        if (start == getInt(propertyValueStart, property + 1)) {
+            return Optional.empty();
+        }
+        return Optional.of(getValue(start));
+    }
+
+    /**
+     * Materializes the entry, meant for the few entries shown to the user at a time.
+     */
+    public BracketHandlerEntry getEntry(int entry) {
+        Map<String, List<String>> properties = new HashMap<>();
+        for (int property = getInt(entryPropertyStart, entry); property < getInt(entryPropertyStart, entry + 1); property++) {
+            String key = keys.get(getInt(propertyKey, property));
+            properties.put(key, get(entry, key));
+        }
+        return new BracketHandlerEntry(properties);
+    }
+
+    public List<BracketHandlerMirror> getMirrors() {
+        List<BracketHandlerMirror> mirrors = new ArrayList<>(getMirrorCount());
+        for (int mirror = 0; mirror < getMirrorCount(); mirror++) {
+            int start = getEntryStart(mirror);
+            int size = getEntryEnd(mirror) - start;
+            List<BracketHandlerEntry> entries = new AbstractList<>() {
+                @Override
+                public BracketHandlerEntry get(int index) {
+                    Objects.checkIndex(index, size);
+                    return getEntry(start + index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+            mirrors.add(new BracketHandlerMirror(mirrorTypes[mirror], mirrorRegexes[mirror], entries));
+        }
+        return mirrors;
+    }
+
+    private int findProperty(int entry, String key) {
+        Integer keyId = keyIds.get(key);
+        if (keyId == null) {
+            return -1;
+        }
+        for (int property = getInt(entryPropertyStart, entry); property < getInt(entryPropertyStart, entry + 1); property++) {
+            if (getInt(propertyKey, property) == keyId) {
+                return property;
+            }
+        }
+        return -1;
+    }
+
+    private String getValue(int value) {
+        return ByteJsonReader.decode(buffer, bytes + getInt(valueStart, value), bytes + getInt(valueStart, value + 1));
+    }
+
+    private int getInt(int column, int index) {
+        return buffer.getInt(column + 4 * index);
+    }
+
+    private static BracketHandlerStore openCache(Path cachePath) {
+        if (!Files.exists(cachePath)) {
+            return null;
+        }
+        try {
+            return new BracketHandlerStore(map(cachePath));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignore the invalid bracket handler cache {}, {}", cachePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer writeCache(Path cachePath, ByteBuffer built) {
+        Path tempPath = cachePath.resolveSibling(cachePath.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer source = built.duplicate();
+                while (source.hasRemaining()) {
+                    channel.write(source);
+                }
+            }
+            Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.info("Write bracket handler cache {}", cachePath);
+            return map(cachePath);
+        } catch (IOException e) {
+            // e.g. the old cache is still mapped by another environment on Windows
+            logger.warn("Failed to write bracket handler cache {}, keep it in memory, {}", cachePath, e.getMessage());
+            try {
+                Files.deleteIfExists(tempPath);
+            } catch (IOException ignored) {
+            }
+            return built;
+        }
+    }
+
+    private static void updateCacheModified(Path cachePath, long modified) {
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, modified), 16);
+        } catch (IOException e) {
+            logger.warn("Failed to update bracket handler cache {}, {}", cachePath, e.getMessage());
+        }
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static long hash(ByteBuffer json) {
+        CRC32C crc = new CRC32C();
+        crc.update(json.duplicate());
+        return crc.getValue();
+    }
+
+    private static BracketHandlerStore createEmpty() {
+        try {
+            return read(ByteBuffer.wrap("[]".getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Loader {
+        final ByteJsonReader reader;
+        final ByteBuffer json;
+        final List<String> mirrorTypes = new ArrayList<>();
+        final List<String> mirrorRegexes = new ArrayList<>();
+        final IntArray mirrorEntryStart = new IntArray();
+        final IntArray entryPropertyStart = new IntArray();
+        final IntArray propertyKey = new IntArray();
+        final IntArray propertyValueStart = new IntArray();
+        // the raw bytes of value i are [valueStart[i], valueEnd[i]) of the json
+        final IntArray valueStart = new IntArray();
+        final IntArray valueEnd = new IntArray();
+        final List<String> keys = new ArrayList<>();
+        final Map<String, Integer> keyIds = new HashMap<>();
+
+        Loader(ByteBuffer json) {
+            this.reader = new ByteJsonReader(json);
+            this.json = json;
+        }
+
+        ByteBuffer load(long size, long modified, long hash) throws IOException {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                readMirror();
+            }
+            reader.endArray();
+            mirrorEntryStart.add(entryPropertyStart.size());
+            entryPropertyStart.add(propertyKey.size());
+            propertyValueStart.add(valueStart.size());
+            return write(size, modified, hash);
+        }
+
+        void readMirror() throws IOException {
+            String type = null;
+            String regex = null;
+            mirrorEntryStart.add(entryPropertyStart.size());
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "type" -> type = readString();
+                    case "regex" -> regex = readString();
+                    case "entries" -> {
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            readEntry();
+                        }
+                        reader.endArray();
+                    }
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+            mirrorTypes.add(type);
+            mirrorRegexes.add(regex);
+        }
+
+        void readEntry() throws IOException {
+            entryPropertyStart.add(propertyKey.size());
+            reader.beginObject();
+            while (reader.hasNext()) {
+                propertyKey.add(keyIds.computeIfAbsent(reader.nextName(), key -> {
+                    keys.add(key);
+                    return keys.size() - 1;
+                }));
+                propertyValueStart.add(valueStart.size());
+                if (reader.peek() == ByteJsonReader.Token.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readValue();
+                    }
+                    reader.endArray();
+                } else {
+                    readValue();
+                }
+            }
+            reader.endObject();
+        }
+
+        void readValue() throws IOException {
+            ByteJsonReader.Token token = reader.peek();
+            if (token == ByteJsonReader.Token.STRING || token == ByteJsonReader.Token.LITERAL) {
+                long range = reader.skipScalar();
+                valueStart.add((int) (range >>> 32));
+                valueEnd.add((int) range);
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        String readString() throws IOException {
+            StringBuilder builder = new StringBuilder();
+            reader.nextString(builder);
+            return builder.toString();
+        }
+
+        ByteBuffer write(long size, long modified, long hash) throws IOException {
+            List<byte[]> strings = new ArrayList<>();
+            keys.forEach(key -> strings.add(key.getBytes(StandardCharsets.UTF_8)));
+            mirrorTypes.forEach(type -> strings.add((type != null) ? type.getBytes(StandardCharsets.UTF_8) : null));
+            mirrorRegexes.forEach(regex -> strings.add((regex != null) ? regex.getBytes(StandardCharsets.UTF_8) : null));
+            long byteCount = 0;
+            for (int i = 0; i < valueStart.size(); i++) {
+                byteCount += valueEnd.get(i) - valueStart.get(i);
+            }
+            long total = HEADER_SIZE + byteCount + 4L * (mirrorEntryStart.size() + entryPropertyStart.size()
+                    + propertyKey.size() + propertyValueStart.size() + valueStart.size() + 1);
+            for (byte[] string : strings) {
+                total += 4 + ((string != null) ? string.length : 0);
+            }
+            if (total > Integer.MAX_VALUE) {
+                throw new IOException("Too many bracket handler entries");
+            }
+
+            ByteBuffer out = ByteBuffer.allocate((int) total);
+            out.putInt(MAGIC).putInt(FORMAT_VERSION)
+                    .putLong(size).putLong(modified).putLong(hash)
+                    .putInt(mirrorTypes.size()).putInt(entryPropertyStart.size() - 1).putInt(keys.size())
+                    .putInt(propertyKey.size()).putInt(valueStart.size()).putInt((int) byteCount);
+            for (byte[] string : strings) {
+                if (string != null) {
+                    out.putInt(string.length).put(string);
+                } else {
+                    out.putInt(-1);
+                }
+            }
+            putAll(out, mirrorEntryStart);
+            putAll(out, entryPropertyStart);
+            putAll(out, propertyKey);
+            putAll(out, propertyValueStart);
+            int offset = 0;
+            for (int i = 0; i < valueStart.size(); i++) {
+                out.putInt(offset);
+                offset += valueEnd.get(i) - valueStart.get(i);
+            }
+            out.putInt(offset);
+            for (int i = 0; i < valueStart.size(); i++) {
+                int length = valueEnd.get(i) - valueStart.get(i);
+                out.put(out.position(), json, valueStart.get(i), length);
+                out.position(out.position() + length);
+            }
+            return out.rewind();
+        }
+
+        static void putAll(ByteBuffer out, IntArray array) {
+            for (int i = 0; i < array.size(); i++) {
+                out.putInt(array.get(i));
+            }
+        }
+    }
+
+}
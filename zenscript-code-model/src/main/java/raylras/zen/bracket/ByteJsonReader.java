@@ -0,0 +1,292 @@
+package raylras.zen.bracket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A pull reader of JSON over a byte buffer, reading strings straight into a caller's builder
+ * and able to skip a string while reporting where its bytes are.
+ * <p>
+ * Only absolute reads are made on the buffer, so a mapped file can be shared without duplicating it.
+ */
+final class ByteJsonReader {
+
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, LITERAL, END_DOCUMENT
+    }
+
+    private final ByteBuffer buffer;
+    private final int limit;
+    private int pos;
+
+    // per nesting level, whether it is an object, and whether a name is expected next
+    private boolean[] objects = new boolean[32];
+    private boolean[] expectName = new boolean[32];
+    private int depth;
+
+    ByteJsonReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+        this.pos = buffer.position();
+        // skip the byte order mark
+        if (limit - pos >= 3 && (buffer.get(pos) & 0xFF) == 0xEF && (buffer.get(pos + 1) & 0xFF) == 0xBB && (buffer.get(pos + 2) & 0xFF) == 0xBF) {
+            pos += 3;
+        }
+    }
+
+    Token peek() throws IOException {
+        skipSeparators();
+        if (pos >= limit) {
+            return Token.END_DOCUMENT;
+        }
+        return switch (buffer.get(pos)) {
+            case '{' -> Token.BEGIN_OBJECT;
+            case '}' -> Token.END_OBJECT;
+            case '[' -> Token.BEGIN_ARRAY;
+            case ']' -> Token.END_ARRAY;
+            case '"' -> (depth > 0 && expectName[depth - 1]) ? Token.NAME : Token.STRING;
+            default -> Token.LITERAL;
+        };
+    }
+
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+        push(true);
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+        push(false);
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+        depth--;
+    }
+
+    String nextName() throws IOException {
+        if (peek() != Token.NAME) {
+            throw syntaxError("Expected a name");
+        }
+        StringBuilder builder = new StringBuilder();
+        readString(builder);
+        skipSeparators();
+        if (pos >= limit || buffer.get(pos) != ':') {
+            throw syntaxError("Expected ':'");
+        }
+        pos++;
+        expectName[depth - 1] = false;
+        return builder.toString();
+    }
+
+    /**
+     * Appends the decoded string value to the builder.
+     */
+    void nextString(StringBuilder builder) throws IOException {
+        Token token = peek();
+        if (token == Token.STRING) {
+            readString(builder);
+        } else if (token == Token.LITERAL) {
+            builder.append(readLiteral());
+        } else {
+            throw syntaxError("Expected a string");
+        }
+    }
+
+    /**
+     * Skips the string value without decoding it.
+     *
+     * @return the start and end offsets of the raw bytes between the quotes, packed as {@code start << 32 | end}
+     */
+    long skipString() throws IOException {
+        if (peek() != Token.STRING) {
+            throw syntaxError("Expected a string");
+        }
+        int start = ++pos;
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == '"') {
+                int end = pos++;
+                return ((long) start << 32) | end;
+            }
+            pos += (b == '\\') ? 2 : 1;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * Skips the string or literal value without decoding it.
+     *
+     * @return the start and end offsets of the raw bytes, without the quotes of a string, packed as {@code start << 32 | end}
+     */
+    long skipScalar() throws IOException {
+        Token token = peek();
+        if (token == Token.STRING) {
+            return skipString();
+        } else if (token == Token.LITERAL) {
+            return skipLiteral();
+        } else {
+            throw syntaxError("Expected a string or a literal");
+        }
+    }
+
+    void skipValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT -> {
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+            }
+            case BEGIN_ARRAY -> {
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+            }
+            case STRING -> skipString();
+            case LITERAL -> skipLiteral();
+            default -> throw syntaxError("Expected a value");
+        }
+    }
+
+    /**
+     * Decodes the raw bytes of a string skipped by {@link #skipString()}.
+     */
+    static String decode(ByteBuffer buffer, int start, int end) {
+        StringBuilder builder = new StringBuilder(end - start);
+        decode(buffer, start, end, builder);
+        return builder.toString();
+    }
+
+    private void readString(StringBuilder builder) throws IOException {
+        int start = ++pos;
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == '"') {
+                decode(buffer, start, pos, builder);
+                pos++;
+                return;
+            }
+            pos += (b == '\\') ? 2 : 1;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private static void decode(ByteBuffer buffer, int start, int end, StringBuilder builder) {
+        int i = start;
+        while (i < end) {
+            byte b = buffer.get(i);
+            if (b == '\\') {
+                char escaped = (char) buffer.get(i + 1);
+                i += 2;
+                switch (escaped) {
+                    case 'n' -> builder.append('\n');
+                    case 't' -> builder.append('\t');
+                    case 'r' -> builder.append('\r');
+                    case 'b' -> builder.append('\b');
+                    case 'f' -> builder.append('\f');
+                    case 'u' -> {
+                        int codeUnit = 0;
+                        for (int j = 0; j < 4; j++) {
+                            codeUnit = (codeUnit << 4) | Character.digit((char) buffer.get(i + j), 16);
+                        }
+                        builder.append((char) codeUnit);
+                        i += 4;
+                    }
+                    default -> builder.append(escaped);
+                }
+            } else if (b >= 0) {
+                builder.append((char) b);
+                i++;
+            } else {
+                // a multibyte UTF-8 sequence, decoded up to the next ASCII byte
+                int j = i;
+                while (j < end && buffer.get(j) < 0) {
+                    j++;
+                }
+                byte[] bytes = new byte[j - i];
+                buffer.get(i, bytes);
+                builder.append(new String(bytes, StandardCharsets.UTF_8));
+                i = j;
+            }
+        }
+    }
+
+    private String readLiteral() throws IOException {
+        long range = skipLiteral();
+        return decode(buffer, (int) (range >>> 32), (int) range);
+    }
+
+    private long skipLiteral() throws IOException {
+        int start = pos;
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (b == ',' || b == '}' || b == ']' || b == ':' || isWhitespace(b)) {
+                break;
+            }
+            pos++;
+        }
+        if (pos == start) {
+            throw syntaxError("Unexpected character");
+        }
+        return ((long) start << 32) | pos;
+    }
+
+    private void push(boolean isObject) {
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+            expectName = Arrays.copyOf(expectName, depth * 2);
+        }
+        objects[depth] = isObject;
+        expectName[depth] = isObject;
+        depth++;
+    }
+
+    private void expect(char c) throws IOException {
+        skipSeparators();
+        if (pos >= limit || buffer.get(pos) != c) {
+            throw syntaxError("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private void skipSeparators() {
+        while (pos < limit) {
+            byte b = buffer.get(pos);
+            if (isWhitespace(b) || b == ',') {
+                // the names of an object follow '{' and ','
+                if (b == ',' && depth > 0 && objects[depth - 1]) {
+                    expectName[depth - 1] = true;
+                }
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at byte " + pos);
+    }
+
+}
@@ -1,82 +1,238 @@
 package raylras.zen.bracket;
 
 import org.eclipse.lsp4j.jsonrpc.Launcher;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
 import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import raylras.zen.util.CacheStats;
+import raylras.zen.util.ExpiringCache;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Queries bracket handler entries from a running Minecraft instance, without blocking the caller.
+ * <p>
+ * All queries share one connection and are pipelined over it, their responses matched by the request ids,
+ * and a query of an expression already in flight shares the result of that query.
+ * Responses are cached for a while, and so are error responses if {@code failureTimeToLive} is positive,
+ * until a new connection is made, as the game may have been restarted with other content.
+ */
 public class RpcClient {
 
     private static final Logger logger = LoggerFactory.getLogger(RpcClient.class);
 
-    static Map<String, List<String>> queryEntryProperties(String validExpr)
-            throws IOException, ExecutionException, InterruptedException {
-        Map<String, Object> properties = getRemoteService().query(validExpr, true)
-                .exceptionally(e -> {
-                    invalidateRemoteService();
-                    throw new RuntimeException(e);
-                }).get();
-        return properties.entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                    if (entry.getValue() instanceof String str) {
-                        return List.of(str);
-                    } else if (entry.getValue() instanceof List<?> list) {
-                        return list.stream().map(Object::toString).toList();
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    private static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(10);
+    private static final Duration DEFAULT_FAILURE_TIME_TO_LIVE = Duration.ofSeconds(30);
+
+    private static final RpcClient DEFAULT = new RpcClient("127.0.0.1", 6489, Duration.ofSeconds(3));
+
+    private final InetSocketAddress address;
+    private final Duration timeout;
+    private final ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "rpc-client");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, CompletableFuture<Map<String, List<String>>>> inFlight = new ConcurrentHashMap<>();
+    private final ExpiringCache<String, Response> responses;
+    private final Duration timeToLive;
+    private final Duration failureTimeToLive;
+    private Connection connection;
+
+    /**
+     * @param timeout the time to connect, and the time to wait for each response
+     */
+    public RpcClient(String host, int port, Duration timeout) {
+        this(host, port, timeout, DEFAULT_CACHE_SIZE, DEFAULT_TIME_TO_LIVE, DEFAULT_FAILURE_TIME_TO_LIVE);
+    }
+
+    /**
+     * @param timeout the time to connect, and the time to wait for each response
+     * @param failureTimeToLive the time to cache error responses, not at all if zero
+     */
+    public RpcClient(String host, int port, Duration timeout, int maximumCacheSize, Duration timeToLive, Duration failureTimeToLive) {
+        this.address = new InetSocketAddress(host, port);
+        this.timeout = timeout;
+        this.responses = new ExpiringCache<>(maximumCacheSize);
+        this.timeToLive = timeToLive;
+        this.failureTimeToLive = failureTimeToLive;
+    }
+
+    public static RpcClient getDefault() {
+        return DEFAULT;
+    }
+
+    public static void shutdown() {
+        DEFAULT.close();
+    }
+
+    /**
+     * @return a future completed with the properties of the entry,
+     * or exceptionally with a {@link TimeoutException} if the remote does not respond in time
+     */
+    public CompletableFuture<Map<String, List<String>>> queryEntryProperties(String validExpr) {
+        Response cached = responses.get(validExpr);
+        if (cached != null) {
+            return (cached.failure() == null) ? CompletableFuture.completedFuture(cached.properties()) : CompletableFuture.failedFuture(cached.failure());
+        }
+        CompletableFuture<Map<String, List<String>>> result = new CompletableFuture<>();
+        CompletableFuture<Map<String, List<String>>> existing = inFlight.putIfAbsent(validExpr, result);
+        if (existing != null) {
+            // a copy, so that one caller cancelling does not affect the others
+            return existing.copy();
+        }
+        // connecting may take up to the timeout, which is not for the caller to wait
+        CompletableFuture.supplyAsync(this::getConnection, executorService)
+                .thenCompose(connection -> query(connection, validExpr)
+                        .thenApply(RpcClient::toProperties)
+                        .whenComplete((properties, e) -> {
+                            Throwable cause = unwrap(e);
+                            if (cause == null) {
+                                cache(connection, validExpr, new Response(properties, null), timeToLive);
+                            } else if (cause instanceof ResponseErrorException) {
+                                // the remote answered, but not with an entry
+                                cache(connection, validExpr, new Response(null, cause), failureTimeToLive);
+                            }
+                        }))
+                .whenComplete((properties, e) -> {
+                    Throwable cause = unwrap(e);
+                    // before completing, a caller continuing on the result must not be handed the same result again
+                    inFlight.remove(validExpr, result);
+                    if (cause == null) {
+                        result.complete(properties);
                     } else {
-                        throw new RuntimeException("Unexpected type of value: " + entry.getValue());
+                        result.completeExceptionally(cause);
                     }
-                }));
+                });
+        return result.copy();
     }
 
-    public static void shutdown() {
-        invalidateRemoteService();
-        executorService.shutdown();
+    public CacheStats getCacheStats() {
+        return responses.getStats();
     }
 
-    private static final ExecutorService executorService = Executors.newCachedThreadPool();
-    private static Socket socket;
-    private static RemoteService remoteService;
+    /**
+     * Drops the cached responses, which is done anyway when connecting again.
+     */
+    public void invalidateCache() {
+        responses.invalidateAll();
+    }
 
-    private static RemoteService getRemoteService() throws IOException {
-        if (remoteService != null) {
-            return remoteService;
-        } else {
-            return createRemoteService();
+    public synchronized void close() {
+        if (connection != null) {
+            invalidate(connection);
         }
+        executorService.shutdown();
     }
 
-    private static RemoteService createRemoteService() throws IOException {
-        socket = new Socket("127.0.0.1", 6489);
-        Launcher<RemoteService> launcher = Launcher.createLauncher(new Object(), RemoteService.class, socket.getInputStream(), socket.getOutputStream(), executorService, Function.identity());
-        launcher.startListening();
-        remoteService = launcher.getRemoteProxy();
-        return remoteService;
+    private CompletableFuture<Map<String, Object>> query(Connection connection, String validExpr) {
+        CompletableFuture<Map<String, Object>> request = connection.remoteService().query(validExpr, true);
+        CompletableFuture<Map<String, Object>> response = request.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        response.whenComplete((properties, e) -> {
+            Throwable cause = unwrap(e);
+            if (cause instanceof TimeoutException) {
+                // a slow remote, tell it to give up but keep the connection
+                request.cancel(true);
+            } else if (cause != null && !(cause instanceof ResponseErrorException)) {
+                invalidate(connection);
+            }
+        });
+        return response;
     }
 
-    private static void invalidateRemoteService() {
-        if (socket != null) {
+    /**
+     * A response over a connection no longer in use may be of a game since restarted, it is not cached.
+     */
+    private synchronized void cache(Connection connection, String validExpr, Response response, Duration timeToLive) {
+        if (this.connection == connection) {
+            responses.put(validExpr, response, timeToLive);
+        }
+    }
+
+    private synchronized Connection getConnection() {
+        if (connection == null) {
             try {
-                socket.close();
+                connection = connect();
+                invalidateCache();
             } catch (IOException e) {
-                logger.error("Failed to close socket: {}", socket, e);
-            } finally {
-                socket = null;
+                throw new CompletionException(e);
             }
         }
-        remoteService = null;
+        return connection;
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(address, (int) timeout.toMillis());
+            Launcher<RemoteService> launcher = Launcher.createLauncher(new Object(), RemoteService.class, socket.getInputStream(), socket.getOutputStream(), executorService, Function.identity());
+            Connection connection = new Connection(socket, launcher.getRemoteProxy());
+            Future<Void> listening = launcher.startListening();
+            // listening ends once the remote has gone, connect again on the next query
+            executorService.execute(() -> {
+                try {
+                    listening.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    logger.warn("Lost connection to {}", address, e.getCause());
+                } finally {
+                    invalidate(connection);
+                }
+            });
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    synchronized boolean isConnected() {
+        return connection != null;
+    }
+
+    private synchronized void invalidate(Connection connection) {
+        if (this.connection == connection) {
+            this.connection = null;
+        }
+        try {
+            connection.socket().close();
+        } catch (IOException e) {
+            logger.error("Failed to close socket: {}", connection.socket(), e);
+        }
     }
 
+    private static Map<String, List<String>> toProperties(Map<String, Object> properties) {
+        return properties.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                    if (entry.getValue() instanceof String str) {
+                        return List.of(str);
+                    } else if (entry.getValue() instanceof List<?> list) {
+                        return list.stream().map(Object::toString).toList();
+                    } else {
+                        throw new RuntimeException("Unexpected type of value: " + entry.getValue());
+                    }
+                }));
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+    }
+
+    private record Connection(Socket socket, RemoteService remoteService) {}
+
+    private record Response(Map<String, List<String>> properties, Throwable failure) {}
+
     private interface RemoteService {
         @JsonRequest
         CompletableFuture<Map<String, Object>> query(String validExpr, boolean extras);
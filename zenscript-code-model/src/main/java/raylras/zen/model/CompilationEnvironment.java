@@ -1,19 +1,32 @@
 package raylras.zen.model;
 
 import raylras.zen.bracket.BracketHandlerService;
+import raylras.zen.model.resolve.ReferenceIndex;
 import raylras.zen.model.symbol.*;
 import raylras.zen.model.type.StringType;
+import raylras.zen.model.type.SubtypeCache;
 import raylras.zen.model.type.Type;
 import raylras.zen.model.type.Types;
+import raylras.zen.util.NameTable;
+import raylras.zen.util.OperatorTable;
+import raylras.zen.util.OverloadResolutionCache;
+import raylras.zen.util.PackageTree;
 import raylras.zen.util.PathUtil;
+import raylras.zen.util.VersionedCache;
+import raylras.zen.util.VersionedValue;
 
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Stream;
 
@@ -26,6 +39,20 @@ public class CompilationEnvironment {
     private final Path generatedRoot;
     private final Map<Path, CompilationUnit> unitMap = new HashMap<>();
     private final BracketHandlerService bracketHandlerService = new BracketHandlerService(this);
+    private final NameTable nameTable = new NameTable();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong packageVersion = new AtomicLong();
+    private final AtomicLong classVersion = new AtomicLong();
+    private final SubtypeCache subtypeCache = new SubtypeCache(this::getVersion);
+    private final OverloadResolutionCache overloadResolutionCache = new OverloadResolutionCache(this::getVersion);
+    private final VersionedCache<Type, OperatorTable> operatorTables = new VersionedCache<>(4096, this::getVersion);
+    private final ReferenceIndex referenceIndex = new ReferenceIndex();
+    private final PackageTree<Symbol> classTree = new PackageTree<>(".");
+    private final Map<CompilationUnit, List<ClassIndexEntry>> classIndexEntries = new ConcurrentHashMap<>();
+    private final Map<String, List<Symbol>> classDeclarations = new ConcurrentHashMap<>();
+    private final Map<String, List<ClassSymbol>> classesBySimpleName = new ConcurrentHashMap<>();
+    // scripts are placed by their paths and read lazily, but classes are placed one by one
+    private final VersionedValue<PackageSymbol> rootPackage = new VersionedValue<>(() -> packageVersion.get() + classVersion.get(), () -> SymbolFactory.createPackageSymbol(this));
 
     private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
@@ -37,6 +64,8 @@ public class CompilationEnvironment {
     public CompilationUnit createUnit(Path unitPath) {
         CompilationUnit unit = new CompilationUnit(unitPath, this);
         unitMap.put(unitPath, unit);
+        packageVersion.incrementAndGet();
+        incrementVersion();
         return unit;
     }
 
@@ -45,13 +74,35 @@ public class CompilationEnvironment {
     }
 
     public void removeUnit(Path unitPath) {
-        unitMap.remove(unitPath);
+        CompilationUnit removed = unitMap.remove(unitPath);
+        packageVersion.incrementAndGet();
+        incrementVersion();
+        if (removed != null) {
+            referenceIndex.invalidate(removed);
+            removeFromClassIndex(removed);
+        }
     }
 
     public Collection<CompilationUnit> getUnits() {
         return unitMap.values();
     }
 
+    /**
+     * @return the units that may declare {@code qualifiedName},
+     * those named by it or by one of its prefixes
+     */
+    public List<CompilationUnit> getUnitsAlong(String qualifiedName) {
+        List<CompilationUnit> result = new ArrayList<>(1);
+        for (CompilationUnit unit : getUnits()) {
+            String unitName = unit.getQualifiedName();
+            if (qualifiedName.startsWith(unitName)
+                    && (qualifiedName.length() == unitName.length() || qualifiedName.charAt(unitName.length()) == '.')) {
+                result.add(unit);
+            }
+        }
+        return result;
+    }
+
     public Stream<Symbol> getGlobals() {
         return getUnits().stream()
                 .flatMap(unit -> unit.getTopLevelSymbols().stream())
@@ -89,7 +140,87 @@ public class CompilationEnvironment {
     }
 
     public PackageSymbol getRootPackage() {
-        return SymbolFactory.createPackageSymbol(this);
+        return rootPackage.get();
+    }
+
+    /**
+     * The classes and scripts of this environment by their qualified names,
+     * kept up to date as units are loaded and removed.
+     */
+    public PackageTree<Symbol> getClassTree() {
+        return classTree;
+    }
+
+    /**
+     * @return the classes of this environment having the simple name
+     */
+    public List<ClassSymbol> getClassesBySimpleName(String simpleName) {
+        return classesBySimpleName.getOrDefault(simpleName, Collections.emptyList());
+    }
+
+    /**
+     * A qualified name may be declared by several units, the one loaded last is in the class tree
+     * until it is removed or reloaded without the name.
+     */
+    void updateClassIndex(CompilationUnit unit) {
+        removeFromClassIndex(unit);
+        List<ClassIndexEntry> entries = new ArrayList<>();
+        for (Symbol symbol : unit.getTopLevelSymbols()) {
+            if (symbol instanceof ClassSymbol classSymbol) {
+                entries.add(new ClassIndexEntry(classSymbol.getQualifiedName(), classSymbol));
+                // copy on write, readers never see a list being modified
+                classesBySimpleName.merge(classSymbol.getSimpleName(), List.of(classSymbol), CompilationEnvironment::concat);
+            }
+        }
+        if (!entries.isEmpty()) {
+            classVersion.incrementAndGet();
+        }
+        if (!unit.isGenerated()) {
+            entries.add(new ClassIndexEntry(unit.getQualifiedName(), SymbolFactory.createPackageSymbol(unit)));
+        }
+        for (ClassIndexEntry entry : entries) {
+            classDeclarations.merge(entry.name(), List.of(entry.symbol()), CompilationEnvironment::concat);
+            classTree.put(entry.name(), entry.symbol());
+        }
+        classIndexEntries.put(unit, entries);
+    }
+
+    private void removeFromClassIndex(CompilationUnit unit) {
+        List<ClassIndexEntry> entries = classIndexEntries.remove(unit);
+        if (entries == null) {
+            return;
+        }
+        if (entries.stream().anyMatch(entry -> entry.symbol() instanceof ClassSymbol)) {
+            classVersion.incrementAndGet();
+        }
+        for (ClassIndexEntry entry : entries) {
+            List<Symbol> remaining = classDeclarations.computeIfPresent(entry.name(), (name, symbols) -> without(symbols, entry.symbol()));
+            if (remaining == null) {
+                classTree.remove(entry.name());
+            } else if (classTree.get(entry.name()).getElement() == entry.symbol()) {
+                // another unit still declares the name
+                classTree.put(entry.name(), remaining.get(remaining.size() - 1));
+            }
+            if (entry.symbol() instanceof ClassSymbol classSymbol) {
+                classesBySimpleName.computeIfPresent(classSymbol.getSimpleName(), (simpleName, classes) -> without(classes, classSymbol));
+            }
+        }
+    }
+
+    private static <T> List<T> concat(List<T> a, List<T> b) {
+        List<T> merged = new ArrayList<>(a);
+        merged.addAll(b);
+        return List.copyOf(merged);
+    }
+
+    /**
+     * @return the list without the element, or {@code null} if nothing remains
+     */
+    private static <T> List<T> without(List<T> list, T element) {
+        List<T> remaining = list.stream()
+                .filter(it -> it != element)
+                .toList();
+        return remaining.isEmpty() ? null : remaining;
     }
 
     public Path getRoot() {
@@ -104,6 +235,47 @@ public class CompilationEnvironment {
         return bracketHandlerService;
     }
 
+    public NameTable getNameTable() {
+        return nameTable;
+    }
+
+    public SubtypeCache getSubtypeCache() {
+        return subtypeCache;
+    }
+
+    public OverloadResolutionCache getOverloadResolutionCache() {
+        return overloadResolutionCache;
+    }
+
+    public ReferenceIndex getReferenceIndex() {
+        return referenceIndex;
+    }
+
+    public OperatorTable getOperatorTable(Type type) {
+        return operatorTables.computeIfAbsent(type, key -> OperatorTable.create(key, this));
+    }
+
+    /**
+     * The version changes whenever a unit of this environment is created, reloaded or removed.
+     * Caches derived from the environment should be dropped once the version has changed.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * The package version changes whenever a unit is created or removed,
+     * which is when a script or a package may appear or disappear.
+     * Reloading a unit changes its own version only.
+     */
+    public long getPackageVersion() {
+        return packageVersion.get();
+    }
+
+    void incrementVersion() {
+        version.incrementAndGet();
+    }
+
     public Path relativize(Path other) {
         Path root;
         if (Files.exists(generatedRoot) && PathUtil.isSubPath(other, generatedRoot)) {
@@ -123,7 +295,12 @@ public class CompilationEnvironment {
     }
 
     public void clear() {
+        unitMap.values().forEach(this::removeFromClassIndex);
         unitMap.clear();
+        nameTable.clear();
+        referenceIndex.clear();
+        packageVersion.incrementAndGet();
+        incrementVersion();
     }
 
     @Override
@@ -139,4 +316,6 @@ public class CompilationEnvironment {
                 .resolve(DEFAULT_GENERATED_DIRECTORY);
     }
 
+    private record ClassIndexEntry(String name, Symbol symbol) {}
+
 }
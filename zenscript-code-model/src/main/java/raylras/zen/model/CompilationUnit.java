@@ -9,9 +9,12 @@ import raylras.zen.model.scope.Scope;
 import raylras.zen.model.symbol.ImportSymbol;
 import raylras.zen.model.symbol.Symbol;
 import raylras.zen.util.PathUtil;
+import raylras.zen.util.ResultCache;
+import raylras.zen.util.SymbolLookupCache;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class CompilationUnit {
@@ -27,15 +30,21 @@ public class CompilationUnit {
     private final List<ImportSymbol> imports = new ArrayList<>();
     private final Map<ParseTree, Scope> scopeMap = new IdentityHashMap<>();
     private final Map<ParseTree, Symbol> symbolMap = new IdentityHashMap<>();
+    private final SymbolLookupCache symbolLookupCache;
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong dependencyVersion = new AtomicLong();
+    private final ResultCache resultCache = new ResultCache(this::getVersion);
 
     private CommonTokenStream tokenStream;
     private ParseTree parseTree;
+    private OccurrenceTable occurrenceTable = OccurrenceTable.EMPTY;
 
     public CompilationUnit(Path path, CompilationEnvironment env) {
         this.path = path;
         this.env = env;
         this.qualifiedName = Compilations.extractClassName(env.relativize(path));
-        this.simpleName = PathUtil.getFileNameWithoutSuffix(path);
+        this.simpleName = env.getNameTable().declare(PathUtil.getFileNameWithoutSuffix(path));
+        this.symbolLookupCache = new SymbolLookupCache(this::getLookupVersion);
     }
 
     public List<ImportSymbol> getImports() {
@@ -90,6 +99,49 @@ public class CompilationUnit {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Symbols resolved for the reference nodes of this unit, valid until this unit is reloaded,
+     * a unit it may resolve names into is reloaded or removed, or a unit is created.
+     */
+    public SymbolLookupCache getSymbolLookupCache() {
+        return symbolLookupCache;
+    }
+
+    /**
+     * The version changes whenever this unit is reloaded.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    void incrementVersion() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * The dependency version changes whenever a unit this unit may resolve names into is reloaded or removed,
+     * as tracked by the {@link raylras.zen.model.resolve.ReferenceIndex}.
+     */
+    public long getDependencyVersion() {
+        return dependencyVersion.get();
+    }
+
+    public void incrementDependencyVersion() {
+        dependencyVersion.incrementAndGet();
+    }
+
+    // each of them only increases, so does their sum whenever one of them changes
+    private long getLookupVersion() {
+        return getVersion() + getDependencyVersion() + env.getPackageVersion();
+    }
+
+    /**
+     * Results of document-level requests, valid until this unit is reloaded.
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
     public Path getPath() {
         return path;
     }
@@ -122,6 +174,14 @@ public class CompilationUnit {
         this.tokenStream = tokenStream;
     }
 
+    public OccurrenceTable getOccurrenceTable() {
+        return occurrenceTable;
+    }
+
+    public void setOccurrenceTable(OccurrenceTable occurrenceTable) {
+        this.occurrenceTable = occurrenceTable;
+    }
+
     public void accept(Visitor<?> visitor) {
         visitor.visit(parseTree);
     }
@@ -135,11 +195,14 @@ public class CompilationUnit {
     }
 
     public void clear() {
+        incrementVersion();
         imports.clear();
         scopeMap.clear();
         symbolMap.clear();
+        symbolLookupCache.invalidateAll();
         tokenStream = null;
         parseTree = null;
+        occurrenceTable = OccurrenceTable.EMPTY;
     }
 
     @Override
@@ -63,16 +63,14 @@ public class Compilations {
         env.clear();
         for (File unitFile : collectUnitFiles(env)) {
             CompilationUnit unit = env.createUnit(unitFile.toPath());
-            load(unit);
+            compile(unit, read(unit));
+            // nothing has been collected from the cleared environment, skip invalidating every unit for each one
+            env.getReferenceIndex().record(unit);
         }
     }
 
     public static void load(CompilationUnit unit) {
-        try {
-            load(unit, CharStreams.fromPath(unit.getPath()));
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to load unit: " + unit, e);
-        }
+        load(unit, read(unit));
     }
 
     public static void load(CompilationUnit unit, String source) {
@@ -81,13 +79,32 @@ public class Compilations {
 
     /* Private Methods */
 
+    private static CharStream read(CompilationUnit unit) {
+        try {
+            return CharStreams.fromPath(unit.getPath());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load unit: " + unit, e);
+        }
+    }
+
     private static void load(CompilationUnit unit, CharStream charStream) {
+        compile(unit, charStream);
+        unit.getEnv().getReferenceIndex().invalidate(unit);
+    }
+
+    private static void compile(CompilationUnit unit, CharStream charStream) {
         unit.clear();
         CommonTokenStream tokenStream = lex(charStream);
+        OccurrenceTable occurrenceTable = OccurrenceTable.create(tokenStream, unit.getEnv().getNameTable());
         ParseTree parseTree = parse(tokenStream);
+        occurrenceTable.bind(parseTree);
         unit.setTokenStream(tokenStream);
         unit.setParseTree(parseTree);
+        unit.setOccurrenceTable(occurrenceTable);
         DeclarationResolver.resolveDeclarations(unit);
+        unit.getEnv().updateClassIndex(unit);
+        unit.incrementVersion();
+        unit.getEnv().incrementVersion();
     }
 
     private static CommonTokenStream lex(CharStream charStream) {
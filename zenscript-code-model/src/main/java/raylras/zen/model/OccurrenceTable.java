@@ -0,0 +1,212 @@
+package raylras.zen.model;
+
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import raylras.zen.model.parser.ZenScriptLexer;
+import raylras.zen.util.IntArray;
+import raylras.zen.util.NameTable;
+
+import java.util.*;
+
+/**
+ * Records where each identifier and each operator token occurs in a unit.
+ * <p>
+ * Built from the token stream right after lexing, names are keyed by their interned text
+ * and every other token is bucketed by its token type.
+ * The keywords the grammar also accepts as a name, such as {@code to}, are recorded both ways.
+ * The interned text of every name token is kept by its token index, so that resolving a name needs no lookup of its text.
+ * Terminal nodes are bound to the token indices the first time they are asked for.
+ */
+public class OccurrenceTable {
+
+    public static final OccurrenceTable EMPTY = new OccurrenceTable(Collections.emptyMap(), new int[0][], Collections.emptyList(), new String[0]);
+
+    private static final int[] NO_OCCURRENCES = new int[0];
+    // see the simpleName rule of the parser
+    private static final BitSet NAME_KEYWORDS = tokenTypes(
+            ZenScriptLexer.TO,
+            ZenScriptLexer.EXTENDS,
+            ZenScriptLexer.OPERATOR,
+            ZenScriptLexer.FOR_IN,
+            ZenScriptLexer.ORDERLY
+    );
+
+    private final Map<String, int[]> identifiers;
+    private final int[][] operators;
+    private final List<Token> tokens;
+    private final String[] atoms;
+    private ParseTree parseTree;
+    private volatile TerminalNode[] terminals;
+
+    private OccurrenceTable(Map<String, int[]> identifiers, int[][] operators, List<Token> tokens, String[] atoms) {
+        this.identifiers = identifiers;
+        this.operators = operators;
+        this.tokens = tokens;
+        this.atoms = atoms;
+    }
+
+    public static OccurrenceTable create(CommonTokenStream tokenStream, NameTable nameTable) {
+        tokenStream.fill();
+        Map<String, IntArray> identifiers = new HashMap<>();
+        IntArray[] operators = new IntArray[ZenScriptLexer.VOCABULARY.getMaxTokenType() + 1];
+        List<Token> tokens = tokenStream.getTokens();
+        String[] atoms = new String[tokens.size()];
+        for (Token token : tokens) {
+            if (token.getChannel() != Token.DEFAULT_CHANNEL || token.getType() == Token.EOF) {
+                continue;
+            }
+            int type = token.getType();
+            if (isName(type)) {
+                String atom = nameTable.intern(token.getText());
+                atoms[token.getTokenIndex()] = atom;
+                identifiers.computeIfAbsent(atom, key -> new IntArray(4)).add(token.getTokenIndex());
+            }
+            if (type != ZenScriptLexer.IDENTIFIER) {
+                IntArray bucket = operators[type];
+                if (bucket == null) {
+                    bucket = operators[type] = new IntArray(4);
+                }
+                bucket.add(token.getTokenIndex());
+            }
+        }
+        Map<String, int[]> identifierMap = new HashMap<>(identifiers.size() * 4 / 3 + 1);
+        identifiers.forEach((name, indices) -> identifierMap.put(name, indices.toArray()));
+        int[][] operatorBuckets = new int[operators.length][];
+        for (int i = 0; i < operators.length; i++) {
+            operatorBuckets[i] = (operators[i] != null) ? operators[i].toArray() : NO_OCCURRENCES;
+        }
+        return new OccurrenceTable(identifierMap, operatorBuckets, tokens, atoms);
+    }
+
+    /**
+     * @return whether a token of the type may be a simple name, that is an identifier or a keyword accepted as a name
+     */
+    public static boolean isName(int tokenType) {
+        return tokenType == ZenScriptLexer.IDENTIFIER || (tokenType >= 0 && NAME_KEYWORDS.get(tokenType));
+    }
+
+    /**
+     * @return whether the text reads like a name, keywords included, as when completing a partial word
+     */
+    public static boolean isIdentifierLike(String text) {
+        return !text.isEmpty() && Character.isJavaIdentifierStart(text.charAt(0));
+    }
+
+    /**
+     * Sets the parse tree whose terminal nodes are returned, it must be parsed from the same tokens.
+     */
+    public void bind(ParseTree parseTree) {
+        this.parseTree = parseTree;
+        this.terminals = null;
+    }
+
+    public boolean contains(String name) {
+        return identifiers.containsKey(name);
+    }
+
+    /**
+     * @param name a terminal node or a rule of a single token, such as a simple name
+     * @return the interned text of the name, taken from this table if the name is a token of it
+     */
+    public String getAtom(ParseTree name) {
+        Token token = null;
+        if (name instanceof TerminalNode node) {
+            token = node.getSymbol();
+        } else if (name instanceof ParserRuleContext ctx && ctx.getStart() == ctx.getStop()) {
+            token = ctx.getStart();
+        }
+        if (token != null) {
+            int tokenIndex = token.getTokenIndex();
+            if (tokenIndex >= 0 && tokenIndex < atoms.length && atoms[tokenIndex] != null && tokens.get(tokenIndex) == token) {
+                return atoms[tokenIndex];
+            }
+        }
+        return NameTable.atom(name.getText());
+    }
+
+    public boolean contains(int tokenType) {
+        return tokenType >= 0 && tokenType < operators.length && operators[tokenType].length > 0;
+    }
+
+    public int count(String name) {
+        return identifiers.getOrDefault(name, NO_OCCURRENCES).length;
+    }
+
+    public List<TerminalNode> getTerminals(String name) {
+        return toTerminals(identifiers.getOrDefault(name, NO_OCCURRENCES));
+    }
+
+    public List<TerminalNode> getTerminals(int tokenType) {
+        if (!contains(tokenType)) {
+            return Collections.emptyList();
+        }
+        return toTerminals(operators[tokenType]);
+    }
+
+    private List<TerminalNode> toTerminals(int[] tokenIndices) {
+        if (tokenIndices.length == 0) {
+            return Collections.emptyList();
+        }
+        TerminalNode[] terminals = getBoundTerminals();
+        List<TerminalNode> result = new ArrayList<>(tokenIndices.length);
+        for (int tokenIndex : tokenIndices) {
+            // tokens dropped by error recovery have no terminal node
+            if (tokenIndex < terminals.length && terminals[tokenIndex] != null) {
+                result.add(terminals[tokenIndex]);
+            }
+        }
+        return result;
+    }
+
+    private TerminalNode[] getBoundTerminals() {
+        TerminalNode[] bound = terminals;
+        if (bound == null) {
+            synchronized (this) {
+                bound = terminals;
+                if (bound == null) {
+                    bound = bindTerminals(parseTree);
+                    terminals = bound;
+                }
+            }
+        }
+        return bound;
+    }
+
+    private static BitSet tokenTypes(int... tokenTypes) {
+        BitSet bitSet = new BitSet();
+        for (int tokenType : tokenTypes) {
+            bitSet.set(tokenType);
+        }
+        return bitSet;
+    }
+
+    private static TerminalNode[] bindTerminals(ParseTree parseTree) {
+        if (parseTree == null) {
+            return new TerminalNode[0];
+        }
+        List<TerminalNode> nodes = new ArrayList<>();
+        ParseTreeWalker.DEFAULT.walk(new Listener() {
+            @Override
+            public void visitTerminal(TerminalNode node) {
+                nodes.add(node);
+            }
+        }, parseTree);
+        int maxIndex = -1;
+        for (TerminalNode node : nodes) {
+            maxIndex = Math.max(maxIndex, node.getSymbol().getTokenIndex());
+        }
+        TerminalNode[] result = new TerminalNode[maxIndex + 1];
+        for (TerminalNode node : nodes) {
+            int tokenIndex = node.getSymbol().getTokenIndex();
+            if (tokenIndex >= 0) {
+                result[tokenIndex] = node;
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,155 @@
+package raylras.zen.model.resolve;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Listener;
+import raylras.zen.model.OccurrenceTable;
+import raylras.zen.model.symbol.ParseTreeLocatable;
+import raylras.zen.model.symbol.Symbol;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps symbols to the terminal nodes that refer to them, one unit at a time.
+ * <p>
+ * The references of a unit are collected on first demand by resolving each of its identifiers once.
+ * When a unit is reloaded or removed, only the units that resolved a name into it,
+ * or that mention a name it declares or declared before, are collected again,
+ * and their dependency version advances so that their symbol lookups are resolved again.
+ */
+public class ReferenceIndex {
+
+    private final Map<CompilationUnit, UnitReferences> unitReferencesMap = new ConcurrentHashMap<>();
+    private final Map<CompilationUnit, Declarations> declarationsMap = new ConcurrentHashMap<>();
+
+    /**
+     * @return the terminal nodes of {@code unit} that refer to {@code symbol} by its name
+     */
+    public List<TerminalNode> getReferences(Symbol symbol, CompilationUnit unit) {
+        if (!unit.getOccurrenceTable().contains(symbol.getName())) {
+            return Collections.emptyList();
+        }
+        return getUnitReferences(unit).usages().getOrDefault(symbol, Collections.emptyList());
+    }
+
+    /**
+     * @return the symbols resolved from the identifiers of {@code unit}, with the terminal nodes referring to each
+     */
+    public Map<Symbol, List<TerminalNode>> getReferences(CompilationUnit unit) {
+        return Collections.unmodifiableMap(getUnitReferences(unit).usages());
+    }
+
+    /**
+     * Called once {@code changed} has been reloaded or removed.
+     */
+    public void invalidate(CompilationUnit changed) {
+        unitReferencesMap.remove(changed);
+        Declarations current = Declarations.of(changed);
+        Declarations previous = (changed.getEnv().getUnit(changed.getPath()) == changed)
+                ? declarationsMap.put(changed, current)
+                : declarationsMap.remove(changed);
+        Set<String> declaredNames = new HashSet<>(current.names());
+        if (previous != null) {
+            declaredNames.addAll(previous.names());
+        }
+        for (CompilationUnit unit : changed.getEnv().getUnits()) {
+            // a class reached through the type of an expression is a dependency once collected,
+            // and its members are named by the unit anyway
+            if (unit != changed && dependsOn(unit, changed, declaredNames)) {
+                unitReferencesMap.remove(unit);
+                unit.incrementDependencyVersion();
+            }
+        }
+    }
+
+    /**
+     * Called once {@code loaded} has been loaded into an environment nothing has been collected from yet,
+     * so there is nothing to invalidate.
+     */
+    public void record(CompilationUnit loaded) {
+        declarationsMap.put(loaded, Declarations.of(loaded));
+    }
+
+    public void clear() {
+        unitReferencesMap.clear();
+        declarationsMap.clear();
+    }
+
+    private boolean dependsOn(CompilationUnit unit, CompilationUnit dependency, Set<String> declaredNames) {
+        UnitReferences references = unitReferencesMap.get(unit);
+        if (references != null && references.dependencies().contains(dependency)) {
+            return true;
+        }
+        OccurrenceTable occurrenceTable = unit.getOccurrenceTable();
+        for (String name : declaredNames) {
+            if (occurrenceTable.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private UnitReferences getUnitReferences(CompilationUnit unit) {
+        UnitReferences references = unitReferencesMap.get(unit);
+        if (references != null && references.parseTree() == unit.getParseTree()) {
+            return references;
+        }
+        long version = unit.getEnv().getVersion();
+        references = collect(unit);
+        // a unit changed in the meantime, the collected references may be outdated already
+        if (unit.getEnv().getVersion() == version) {
+            unitReferencesMap.put(unit, references);
+        }
+        return references;
+    }
+
+    private static UnitReferences collect(CompilationUnit unit) {
+        Map<Symbol, List<TerminalNode>> usages = new HashMap<>();
+        Set<CompilationUnit> dependencies = new HashSet<>();
+        unit.accept(new Listener() {
+            @Override
+            public void visitTerminal(TerminalNode node) {
+                if (!OccurrenceTable.isName(node.getSymbol().getType())) {
+                    return;
+                }
+                String text = unit.getOccurrenceTable().getAtom(node);
+                for (Symbol symbol : SymbolResolver.lookupSymbol(node, unit)) {
+                    if (symbol instanceof ParseTreeLocatable locatable && locatable.getUnit() != unit) {
+                        dependencies.add(locatable.getUnit());
+                    }
+                    if (symbol.getName() == text) {
+                        usages.computeIfAbsent(symbol, key -> new ArrayList<>()).add(node);
+                    }
+                }
+            }
+        });
+        return new UnitReferences(unit.getParseTree(), usages, dependencies);
+    }
+
+    /**
+     * @param parseTree    the tree the references were collected from
+     * @param usages       the terminal nodes referring to each symbol
+     * @param dependencies the other units declaring any of the resolved symbols
+     */
+    private record UnitReferences(ParseTree parseTree,
+                                  Map<Symbol, List<TerminalNode>> usages,
+                                  Set<CompilationUnit> dependencies) {}
+
+    /**
+     * @param names the names of the symbols declared by a unit, classes and their members included,
+     *              and the name of the unit itself
+     */
+    private record Declarations(Set<String> names) {
+        static Declarations of(CompilationUnit unit) {
+            Set<String> names = new HashSet<>();
+            names.add(unit.getSimpleName());
+            for (Symbol symbol : unit.getSymbols()) {
+                names.add(symbol.getName());
+            }
+            return new Declarations(names);
+        }
+    }
+
+}
@@ -29,6 +29,14 @@ public final class SymbolResolver {
     private SymbolResolver() {}
 
     public static Collection<Symbol> lookupSymbol(ParseTree cst, CompilationUnit unit) {
+        return unit.getSymbolLookupCache().getSymbols(cst, key -> resolveSymbol(key, unit));
+    }
+
+    public static Collection<ClassSymbol> lookupClass(QualifiedNameContext cst, CompilationUnit unit) {
+        return unit.getSymbolLookupCache().getClasses(cst, key -> resolveClass(cst, unit));
+    }
+
+    private static Collection<Symbol> resolveSymbol(ParseTree cst, CompilationUnit unit) {
         ParseTree expr = findRootExpression(cst);
         if (expr == null) {
             return Collections.emptyList();
@@ -38,7 +46,7 @@ public final class SymbolResolver {
         return Collections.unmodifiableCollection(visitor.result);
     }
 
-    public static Collection<ClassSymbol> lookupClass(QualifiedNameContext cst, CompilationUnit unit) {
+    private static Collection<ClassSymbol> resolveClass(QualifiedNameContext cst, CompilationUnit unit) {
         SymbolVisitor visitor = new SymbolVisitor(unit, cst);
         cst.accept(visitor);
         Collection<ClassSymbol> classes = new ArrayList<>();
@@ -52,7 +60,7 @@ public final class SymbolResolver {
                         .forEach(classes::add);
             }
         }
-        return classes;
+        return Collections.unmodifiableCollection(classes);
     }
 
     private static ParseTree findRootExpression(ParseTree cst) {
@@ -85,10 +93,10 @@ public final class SymbolResolver {
             }
 
             SimpleNameContext start = simpleNames.get(0);
-            Collection<? extends Symbol> symbols = lookupSymbol(start, start.getText());
+            Collection<? extends Symbol> symbols = lookupSymbol(start, atom(start));
             updateResult(symbols);
             for (int i = 1; i < simpleNames.size(); i++) {
-                symbols = accessMember(symbols, simpleNames.get(i).getText());
+                symbols = accessMember(symbols, atom(simpleNames.get(i)));
                 if (Ranges.contains(cst, simpleNames.get(i))) {
                     updateResult(symbols);
                 }
@@ -98,7 +106,7 @@ public final class SymbolResolver {
 
         @Override
         public SymbolProvider visitSimpleNameExpr(SimpleNameExprContext ctx) {
-            Collection<Symbol> symbols = lookupSymbol(ctx, ctx.simpleName().getText());
+            Collection<Symbol> symbols = lookupSymbol(ctx, atom(ctx.simpleName()));
             if (Ranges.contains(cst, ctx.simpleName())) {
                 updateResult(symbols);
             }
@@ -115,14 +123,17 @@ public final class SymbolResolver {
             Symbol symbol = provider.getSymbols().stream().findFirst().orElse(null);
             Collection<Symbol> symbols;
             if (symbol instanceof ClassSymbol classSymbol) {
-                symbols = classSymbol.getSymbols().stream()
-                        .filter(Symbol::isStatic)
-                        .filter(isSymbolNameEquals(ctx.simpleName().getText()))
-                        .toList();
-            } else if (symbol.getType() instanceof SymbolProvider type) {
-                symbols = type.withExpands(unit.getEnv()).getSymbols().stream()
-                        .filter(isSymbolNameEquals(ctx.simpleName().getText()))
-                        .toList();
+                String simpleName = atom(ctx.simpleName());
+                List<Symbol> staticMembers = new ArrayList<>(1);
+                classSymbol.visitDeclaredMembers(member -> {
+                    if (member.isStatic() && member.getName() == simpleName) {
+                        staticMembers.add(member);
+                    }
+                    return true;
+                });
+                symbols = staticMembers;
+            } else if (symbol.getType() instanceof SymbolProvider) {
+                symbols = MemberView.of(symbol.getType(), unit.getEnv()).findAll(atom(ctx.simpleName()), Symbol.class);
             } else {
                 symbols = Collections.emptyList();
             }
@@ -217,7 +228,12 @@ public final class SymbolResolver {
         }
 
         <T extends Symbol> Predicate<T> isSymbolNameEquals(String name) {
-            return symbol -> name.equals(symbol.getName());
+            // both are atoms of the name table
+            return symbol -> symbol.getName() == name;
+        }
+
+        String atom(ParseTree name) {
+            return unit.getOccurrenceTable().getAtom(name);
         }
     }
 
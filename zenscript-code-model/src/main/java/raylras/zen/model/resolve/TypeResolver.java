@@ -11,7 +11,6 @@ import raylras.zen.model.type.*;
 import raylras.zen.util.CSTNodes;
 import raylras.zen.util.Executables;
 import raylras.zen.util.Operators;
-import raylras.zen.util.Symbols;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -49,7 +48,7 @@ public final class TypeResolver {
             if (returnType == null) {
                 returnType = AnyType.INSTANCE;
             }
-            return new FunctionType(returnType, paramTypes);
+            return TypeFactory.function(returnType, paramTypes);
         }
 
         @Override
@@ -59,7 +58,7 @@ public final class TypeResolver {
             if (returnType == null) {
                 returnType = AnyType.INSTANCE;
             }
-            return new FunctionType(returnType, paramTypes);
+            return TypeFactory.function(returnType, paramTypes);
         }
 
         @Override
@@ -110,7 +109,7 @@ public final class TypeResolver {
             } else {
                 returnType = AnyType.INSTANCE;
             }
-            return new FunctionType(returnType, paramTypes);
+            return TypeFactory.function(returnType, paramTypes);
         }
 
         @Override
@@ -131,7 +130,7 @@ public final class TypeResolver {
         public Type visitOperatorFunctionDeclaration(OperatorFunctionDeclarationContext ctx) {
             List<Type> paramTypes = toTypeList(ctx.formalParameterList());
             Type returnType = visit(ctx.returnType());
-            return new FunctionType(returnType, paramTypes);
+            return TypeFactory.function(returnType, paramTypes);
         }
 
         @Override
@@ -165,12 +164,12 @@ public final class TypeResolver {
         @Override
         public Type visitMapLiteralExpr(MapLiteralExprContext ctx) {
             if (ctx.mapEntryList() == null) {
-                return new MapType(AnyType.INSTANCE, AnyType.INSTANCE);
+                return TypeFactory.map(AnyType.INSTANCE, AnyType.INSTANCE);
             }
             MapEntryContext firstEntry = ctx.mapEntryList().mapEntry(0);
             Type keyType = visit(firstEntry.key);
             Type valueType = visit(firstEntry.value);
-            return new MapType(keyType, valueType);
+            return TypeFactory.map(keyType, valueType);
         }
 
         @Override
@@ -180,7 +179,7 @@ public final class TypeResolver {
 
         @Override
         public Type visitSimpleNameExpr(SimpleNameExprContext ctx) {
-            return lookupSymbol(ctx, ctx.getText())
+            return lookupSymbol(ctx, unit.getOccurrenceTable().getAtom(ctx.simpleName()))
                     .map(Symbol::getType)
                     .orElse(AnyType.INSTANCE);
         }
@@ -232,8 +231,7 @@ public final class TypeResolver {
                         }
                         Type type = visit(memberAccessExpr.expression());
                         String name = memberAccessExpr.simpleName().getText();
-                        List<Executable> functions = Symbols.getExecutableMembersByName(type, name, unit.getEnv());
-                        return Executables.predictNextArgumentType(functions, argumentTypes, unit.getEnv());
+                        return Executables.predictNextArgumentType(type, name, argumentTypes, unit.getEnv()).orElse(null);
                     }
                 }
             }
@@ -241,7 +239,7 @@ public final class TypeResolver {
             for (int i = 0; i < ctx.formalParameterList().formalParameter().size(); i++) {
                 paramTypes.add(AnyType.INSTANCE);
             }
-            return new FunctionType(AnyType.INSTANCE, paramTypes);
+            return TypeFactory.function(AnyType.INSTANCE, paramTypes);
         }
 
         @Override
@@ -298,17 +296,16 @@ public final class TypeResolver {
         @Override
         public Type visitMemberAccessExpr(MemberAccessExprContext ctx) {
             Type leftType = visit(ctx.expression());
-            if (!(leftType instanceof SymbolProvider provider)) {
+            if (!(leftType instanceof SymbolProvider)) {
                 return AnyType.INSTANCE;
             }
             if (ctx.simpleName() == null) {
                 return AnyType.INSTANCE;
             }
-            String simpleName = ctx.simpleName().getText();
-            for (Symbol member : provider.withExpands(unit.getEnv()).getSymbols()) {
-                if (member.getName().equals(simpleName)) {
-                    return member.getType();
-                }
+            String simpleName = unit.getOccurrenceTable().getAtom(ctx.simpleName());
+            Optional<Symbol> member = MemberView.of(leftType, unit.getEnv()).findFirst(simpleName);
+            if (member.isPresent()) {
+                return member.get().getType();
             }
             return Operators.getBinaryResult(leftType, Operator.MEMBER_GET, unit.getEnv(), StringType.INSTANCE).orElse(AnyType.INSTANCE);
         }
@@ -319,7 +316,7 @@ public final class TypeResolver {
             if (firstElementType == null) {
                 firstElementType = AnyType.INSTANCE;
             }
-            return new ArrayType(firstElementType);
+            return TypeFactory.array(firstElementType);
         }
 
         @Override
@@ -337,9 +334,10 @@ public final class TypeResolver {
                     }
                     argumentTypes.add(argumentType);
                 }
-                List<Executable> functions = Symbols.getExecutableMembersByName(owner, memberAccessExpr.simpleName().getText(), unit.getEnv());
-                Executable matchedFunction = Executables.findBestMatch(functions, argumentTypes, unit.getEnv());
-                return matchedFunction == null ? null : matchedFunction.getReturnType();
+                String name = memberAccessExpr.simpleName().getText();
+                return Executables.findBestMatch(owner, name, argumentTypes, unit.getEnv())
+                        .map(Executable::getReturnType)
+                        .orElse(null);
             } else {
                 Type leftType = visit(ctx.expression());
                 if (leftType instanceof FunctionType functionType) {
@@ -372,7 +370,7 @@ public final class TypeResolver {
         @Override
         public Type visitArrayType(ArrayTypeContext ctx) {
             Type elementType = visit(ctx.typeLiteral());
-            return new ArrayType(elementType);
+            return TypeFactory.array(elementType);
         }
 
         @Override
@@ -380,27 +378,27 @@ public final class TypeResolver {
             List<Type> types = ctx.typeLiteral().stream()
                     .map(this::visit)
                     .toList();
-            return new IntersectionType(types);
+            return TypeFactory.intersection(types);
         }
 
         @Override
         public Type visitMapType(MapTypeContext ctx) {
             Type keyType = visit(ctx.key);
             Type valueType = visit(ctx.value);
-            return new MapType(keyType, valueType);
+            return TypeFactory.map(keyType, valueType);
         }
 
         @Override
         public Type visitFunctionType(FunctionTypeContext ctx) {
             List<Type> paramTypes = toTypeList(ctx.typeLiteralList());
             Type returnType = visitReturnType(ctx.returnType());
-            return new FunctionType(returnType, paramTypes);
+            return TypeFactory.function(returnType, paramTypes);
         }
 
         @Override
         public Type visitListType(ListTypeContext ctx) {
             Type elementType = visit(ctx.typeLiteral());
-            return new ListType(elementType);
+            return TypeFactory.list(elementType);
         }
 
         @Override
@@ -454,7 +452,7 @@ public final class TypeResolver {
 
         Optional<Symbol> lookupGlobalSymbol(String simpleName) {
             return unit.getEnv().getGlobals()
-                    .filter(symbol -> symbol.getName().equals(simpleName))
+                    .filter(symbol -> symbol.getName() == simpleName)
                     .findFirst();
         }
 
@@ -3,6 +3,7 @@ package raylras.zen.model.symbol;
 import raylras.zen.model.type.ClassType;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ClassSymbol extends Symbol, SymbolProvider {
 
@@ -12,6 +13,12 @@ public interface ClassSymbol extends Symbol, SymbolProvider {
 
     List<Symbol> getDeclaredMembers();
 
+    /**
+     * Visits the declared members without copying them.
+     * @see SymbolProvider#visitSymbols(Predicate)
+     */
+    boolean visitDeclaredMembers(Predicate<? super Symbol> visitor);
+
     List<ClassSymbol> getInterfaces();
 
     @Override
@@ -0,0 +1,159 @@
+package raylras.zen.model.symbol;
+
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.type.ClassType;
+import raylras.zen.model.type.MemberValidator;
+import raylras.zen.model.type.Type;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A read-only view over the members of a type: its declared members, the members inherited
+ * from its interfaces and the expands provided by the environment, visited in that order.
+ * <p>
+ * Unlike {@link SymbolProvider#withExpands(CompilationEnvironment)}, nothing is copied up front.
+ * {@link #visit(Predicate)} sees every member as declared, overridden ones included,
+ * while the lookups keep only the members matching the filter and deduplicate the class members among them
+ * through {@link MemberValidator}, the same way {@link ClassType#getSymbols()} does.
+ */
+public final class MemberView {
+
+    private final Type type;
+    private final CompilationEnvironment env;
+
+    private MemberView(Type type, CompilationEnvironment env) {
+        this.type = type;
+        this.env = env;
+    }
+
+    public static MemberView of(Type type, CompilationEnvironment env) {
+        return new MemberView(type, env);
+    }
+
+    /**
+     * Visits the members without deduplicating them.
+     *
+     * @return {@code false} if the visitor stopped the visitation early
+     */
+    public boolean visit(Predicate<? super Symbol> visitor) {
+        if (!(type instanceof SymbolProvider provider)) {
+            return true;
+        }
+        if (type instanceof ClassType classType) {
+            if (!visitClassMembers(classType.symbol(), visitor)) {
+                return false;
+            }
+        } else if (!provider.visitSymbols(visitor)) {
+            return false;
+        }
+        return visitExpands(visitor);
+    }
+
+    /**
+     * @return the members matching the filter, with overridden class members dropped and casters merged,
+     * followed by the matching expands
+     */
+    public List<Symbol> collect(Predicate<? super Symbol> filter) {
+        if (!(type instanceof SymbolProvider provider)) {
+            return Collections.emptyList();
+        }
+        List<Symbol> result = new ArrayList<>(1);
+        if (type instanceof ClassType classType) {
+            // only the matching members go through the validator, which groups members by name anyway
+            MemberValidator validator = new MemberValidator();
+            visitClassMembers(classType.symbol(), member -> {
+                if (filter.test(member)) {
+                    validator.add(member);
+                }
+                return true;
+            });
+            validator.forEach(result::add);
+        } else {
+            provider.visitSymbols(member -> {
+                if (filter.test(member)) {
+                    result.add(member);
+                }
+                return true;
+            });
+        }
+        visitExpands(member -> {
+            if (filter.test(member)) {
+                result.add(member);
+            }
+            return true;
+        });
+        return result;
+    }
+
+    public Optional<Symbol> findFirst(String name) {
+        return findFirst(name, Symbol.class);
+    }
+
+    public <T> Optional<T> findFirst(String name, Class<T> clazz) {
+        List<T> found = findAll(name, clazz);
+        return found.isEmpty() ? Optional.empty() : Optional.of(found.get(0));
+    }
+
+    /**
+     * @param name an atom of the name table is matched by identity, any other string by its text
+     */
+    public <T> List<T> findAll(String name, Class<T> clazz) {
+        return findAll(clazz, symbol -> isNamed((Symbol) symbol, name));
+    }
+
+    public List<Symbol> findAll(Symbol.Kind kind) {
+        return collect(symbol -> symbol.getKind() == kind);
+    }
+
+    public <T> List<T> findAll(Class<T> clazz, Predicate<? super T> filter) {
+        List<Symbol> found = collect(symbol -> clazz.isInstance(symbol) && filter.test(clazz.cast(symbol)));
+        List<T> result = new ArrayList<>(found.size());
+        for (Symbol symbol : found) {
+            // a merged caster is a new symbol, check it again
+            if (clazz.isInstance(symbol)) {
+                result.add(clazz.cast(symbol));
+            }
+        }
+        return result;
+    }
+
+    public boolean contains(String name) {
+        return !visit(symbol -> !isNamed(symbol, name));
+    }
+
+    private static boolean isNamed(Symbol symbol, String name) {
+        String symbolName = symbol.getName();
+        return symbolName == name || (symbolName != null && symbolName.equals(name));
+    }
+
+    private boolean visitExpands(Predicate<? super Symbol> visitor) {
+        Iterator<Symbol> expands = env.getExpands(type).iterator();
+        while (expands.hasNext()) {
+            if (!visitor.test(expands.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean visitClassMembers(ClassSymbol classSymbol, Predicate<? super Symbol> visitor) {
+        if (!classSymbol.visitDeclaredMembers(visitor)) {
+            return false;
+        }
+        List<ClassSymbol> interfaces = classSymbol.getInterfaces();
+        if (interfaces.isEmpty()) {
+            return true;
+        }
+        Deque<ClassSymbol> interfaceDeque = new ArrayDeque<>(interfaces);
+        while (!interfaceDeque.isEmpty()) {
+            ClassSymbol pop = interfaceDeque.pop();
+            if (!pop.visitDeclaredMembers(visitor)) {
+                return false;
+            }
+            interfaceDeque.addAll(pop.getInterfaces());
+        }
+        return true;
+    }
+
+}
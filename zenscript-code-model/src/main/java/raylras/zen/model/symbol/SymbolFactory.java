@@ -9,11 +9,15 @@ import raylras.zen.model.resolve.FormalParameterResolver;
 import raylras.zen.model.resolve.ModifierResolver;
 import raylras.zen.model.resolve.SymbolResolver;
 import raylras.zen.model.resolve.TypeResolver;
+import raylras.zen.model.scope.Scope;
 import raylras.zen.model.symbol.Symbol.Modifier;
 import raylras.zen.model.type.*;
+import raylras.zen.util.NameTable;
 import raylras.zen.util.Range;
+import raylras.zen.util.VersionedValue;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
@@ -21,8 +25,28 @@ public class SymbolFactory {
 
     private SymbolFactory() {}
 
+    private static String intern(ParseTree name, CompilationUnit unit) {
+        return (name != null) ? unit.getEnv().getNameTable().declare(name.getText()) : "";
+    }
+
     public static ImportSymbol createImportSymbol(SimpleNameContext name, ImportDeclarationContext cst, CompilationUnit unit) {
         class ImportSymbolImpl implements ImportSymbol, ParseTreeLocatable {
+            private final String simpleName = intern(name, unit);
+            private final VersionedValue<List<CompilationUnit>> importedUnits = new VersionedValue<>(
+                    unit.getEnv()::getPackageVersion,
+                    () -> unit.getEnv().getUnitsAlong(getQualifiedName())
+            );
+            private volatile ImportTargets targets;
+
+            // the targets only change with the units that may declare them, or when a unit is created or removed
+            private ImportTargetsVersion getTargetsVersion() {
+                long unitVersions = 0;
+                for (CompilationUnit importedUnit : importedUnits.get()) {
+                    unitVersions += importedUnit.getVersion();
+                }
+                return new ImportTargetsVersion(unit.getEnv().getPackageVersion(), unitVersions);
+            }
+
             @Override
             public String getQualifiedName() {
                 return cst.qualifiedName().getText();
@@ -30,7 +54,17 @@ public class SymbolFactory {
 
             @Override
             public Collection<Symbol> getTargets() {
-                return SymbolResolver.lookupSymbol(cst.qualifiedName(), unit);
+                ImportTargetsVersion version = getTargetsVersion();
+                ImportTargets current = targets;
+                if (current != null && current.version().equals(version)) {
+                    return current.symbols();
+                }
+                Collection<Symbol> symbols = SymbolResolver.lookupSymbol(cst.qualifiedName(), unit);
+                // resolved while a unit was changing, don't keep it
+                if (version.equals(getTargetsVersion())) {
+                    targets = new ImportTargets(version, symbols);
+                }
+                return symbols;
             }
 
             @Override
@@ -40,7 +74,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return name.getText();
+                return simpleName;
             }
 
             @Override
@@ -84,6 +118,7 @@ public class SymbolFactory {
     public static ClassSymbol createClassSymbol(ParseTree name, ClassDeclarationContext cst, CompilationUnit unit) {
         class ClassSymbolImpl implements ClassSymbol, ParseTreeLocatable {
             private final ClassType classType = new ClassType(this);
+            private final String simpleName = intern(name, unit);
 
             @Override
             public String getQualifiedName() {
@@ -96,7 +131,7 @@ public class SymbolFactory {
 
             @Override
             public String getSimpleName() {
-                return name.getText();
+                return simpleName;
             }
 
             @Override
@@ -108,6 +143,25 @@ public class SymbolFactory {
                         .orElseGet(Collections::emptyList);
             }
 
+            @Override
+            public boolean visitDeclaredMembers(Predicate<? super Symbol> visitor) {
+                Scope scope = unit.getScope(cst).orElse(null);
+                if (scope == null) {
+                    return true;
+                }
+                for (Symbol symbol : scope.getSymbols()) {
+                    if (symbol instanceof ParseTreeLocatable && !visitor.test(symbol)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public boolean visitSymbols(Predicate<? super Symbol> visitor) {
+                return visitDeclaredMembers(visitor);
+            }
+
             @Override
             public List<ClassSymbol> getInterfaces() {
                 if (cst.qualifiedNameList() == null) {
@@ -170,9 +224,11 @@ public class SymbolFactory {
 
     public static VariableSymbol createVariableSymbol(SimpleNameContext name, ParserRuleContext cst, CompilationUnit unit) {
         class VariableSymbolImpl implements VariableSymbol, ParseTreeLocatable {
+            private final String simpleName = intern(name, unit);
+
             @Override
             public String getName() {
-                return name.getText();
+                return simpleName;
             }
 
             @Override
@@ -217,9 +273,11 @@ public class SymbolFactory {
 
     public static VariableSymbol createVariableSymbol(String name, Type type, Modifier modifier) {
         class VariableSymbolImpl implements VariableSymbol {
+            private final String simpleName = NameTable.atom(name);
+
             @Override
             public String getName() {
-                return name;
+                return simpleName;
             }
 
             @Override
@@ -242,12 +300,14 @@ public class SymbolFactory {
 
     public static FunctionSymbol createFunctionSymbol(SimpleNameContext name, FunctionDeclarationContext cst, CompilationUnit unit) {
         class FunctionSymbolImpl implements FunctionSymbol, ParseTreeLocatable {
+            private final String simpleName = intern(name, unit);
+
             @Override
             public FunctionType getType() {
                 return TypeResolver.getType(cst, unit)
                         .filter(FunctionType.class::isInstance)
                         .map(FunctionType.class::cast)
-                        .orElseGet(() -> new FunctionType(AnyType.INSTANCE));
+                        .orElseGet(() -> TypeFactory.function(AnyType.INSTANCE));
             }
 
             @Override
@@ -263,7 +323,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return (name != null) ? name.getText() : "";
+                return simpleName;
             }
 
             @Override
@@ -302,9 +362,11 @@ public class SymbolFactory {
 
     public static FunctionSymbol createFunctionSymbol(String name, Type returnType, List<ParameterSymbol> params) {
         class FunctionSymbolImpl implements FunctionSymbol {
+            private final String simpleName = NameTable.atom(name);
+
             @Override
             public FunctionType getType() {
-                return new FunctionType(returnType, params.stream().map(Symbol::getType).toList());
+                return TypeFactory.function(returnType, params.stream().map(Symbol::getType).toList());
             }
 
             @Override
@@ -319,7 +381,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return name;
+                return simpleName;
             }
 
             @Override
@@ -337,6 +399,8 @@ public class SymbolFactory {
 
     public static OperatorFunctionSymbol createOperatorFunctionSymbol(OperatorFunctionDeclarationContext cst, CompilationUnit unit) {
         class OperatorFunctionSymbolImpl implements OperatorFunctionSymbol, ParseTreeLocatable {
+            private final String literal = intern(cst.operator(), unit);
+
             @Override
             public Operator getOperator() {
                 int paramSize = cst.formalParameterList().formalParameter().size();
@@ -349,7 +413,7 @@ public class SymbolFactory {
                 return TypeResolver.getType(cst, unit)
                         .filter(FunctionType.class::isInstance)
                         .map(FunctionType.class::cast)
-                        .orElse(new FunctionType(AnyType.INSTANCE));
+                        .orElse(TypeFactory.function(AnyType.INSTANCE));
             }
 
             @Override
@@ -365,7 +429,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return cst.operator().getText();
+                return literal;
             }
 
             @Override
@@ -410,7 +474,7 @@ public class SymbolFactory {
 
             @Override
             public FunctionType getType() {
-                return new FunctionType(returnType, params.stream().map(Symbol::getType).toList());
+                return TypeFactory.function(returnType, params.stream().map(Symbol::getType).toList());
             }
 
             @Override
@@ -443,6 +507,8 @@ public class SymbolFactory {
 
     public static ParameterSymbol createParameterSymbol(FormalParameterContext cst, CompilationUnit unit) {
         class ParameterSymbolImpl implements ParameterSymbol, ParseTreeLocatable {
+            private final String simpleName = intern(cst.simpleName(), unit);
+
             @Override
             public boolean isOptional() {
                 return cst.defaultValue() != null;
@@ -455,7 +521,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return cst.simpleName().getText();
+                return simpleName;
             }
 
             @Override
@@ -499,6 +565,8 @@ public class SymbolFactory {
 
     public static ExpandFunctionSymbol createExpandFunctionSymbol(ExpandFunctionDeclarationContext cst, CompilationUnit unit) {
         class ExpandFunctionSymbolImpl implements ExpandFunctionSymbol, ParseTreeLocatable {
+            private final String simpleName = intern(cst.simpleName(), unit);
+
             @Override
             public List<ParameterSymbol> getParameterList() {
                 return FormalParameterResolver.getParameterList(cst, unit)
@@ -518,7 +586,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return cst.simpleName().getText();
+                return simpleName;
             }
 
             @Override
@@ -531,7 +599,7 @@ public class SymbolFactory {
                 return TypeResolver.getType(cst, unit)
                         .filter(FunctionType.class::isInstance)
                         .map(FunctionType.class::cast)
-                        .orElse(new FunctionType(AnyType.INSTANCE));
+                        .orElse(TypeFactory.function(AnyType.INSTANCE));
             }
 
             @Override
@@ -564,6 +632,8 @@ public class SymbolFactory {
 
     public static ParameterSymbol createParameterSymbol(String name, Type type, boolean optional, boolean vararg) {
         class ParameterSymbolImpl implements ParameterSymbol {
+            private final String simpleName = NameTable.atom(name);
+
             @Override
             public boolean isOptional() {
                 return optional;
@@ -576,7 +646,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return name;
+                return simpleName;
             }
 
             @Override
@@ -624,6 +694,8 @@ public class SymbolFactory {
 
     public static ConstructorSymbol createConstructorSymbol(ConstructorDeclarationContext cst, CompilationUnit unit, ClassSymbol declaringClass) {
         class ConstructorSymbolImpl implements ConstructorSymbol, ParseTreeLocatable {
+            private final String simpleName = intern(cst.ZEN_CONSTRUCTOR(), unit);
+
             @Override
             public ClassSymbol getDeclaringClass() {
                 return declaringClass;
@@ -642,7 +714,7 @@ public class SymbolFactory {
 
             @Override
             public String getName() {
-                return cst.ZEN_CONSTRUCTOR().getText();
+                return simpleName;
             }
 
             @Override
@@ -655,7 +727,7 @@ public class SymbolFactory {
                 return TypeResolver.getType(cst, unit)
                         .filter(FunctionType.class::isInstance)
                         .map(FunctionType.class::cast)
-                        .orElse(new FunctionType(AnyType.INSTANCE));
+                        .orElse(TypeFactory.function(AnyType.INSTANCE));
             }
 
             @Override
@@ -743,7 +815,7 @@ public class SymbolFactory {
                 String[] components = qualifiedName.split("\\.");
                 PackageSymbolImpl node = this;
                 for (int i = 0; i < components.length - 1; i++) {
-                    String component = components[i];
+                    String component = env.getNameTable().declare(components[i]);
                     node = node.getOrCreateSubpackage(component);
                 }
                 return node;
@@ -878,4 +950,11 @@ public class SymbolFactory {
         }
     }
 
+    /**
+     * @param unitVersions the sum of the versions of the imported units, which only ever grow
+     */
+    private record ImportTargetsVersion(long packageVersion, long unitVersions) {}
+
+    private record ImportTargets(ImportTargetsVersion version, Collection<Symbol> symbols) {}
+
 }
@@ -6,11 +6,25 @@ import raylras.zen.model.type.Type;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.Predicate;
 
 public interface SymbolProvider {
 
     Collection<Symbol> getSymbols();
 
+    /**
+     * Visits the symbols in order until {@code visitor} returns {@code false}.
+     * @return {@code false} if the visitation was stopped early
+     */
+    default boolean visitSymbols(Predicate<? super Symbol> visitor) {
+        for (Symbol symbol : getSymbols()) {
+            if (!visitor.test(symbol)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     static SymbolProvider of(Collection<? extends Symbol> symbols) {
         return () -> Collections.unmodifiableCollection(symbols);
     }
@@ -7,6 +7,7 @@ import raylras.zen.model.symbol.SymbolFactory;
 import raylras.zen.model.symbol.SymbolProvider;
 
 import java.util.List;
+import java.util.Objects;
 
 public record ArrayType(Type elementType) implements Type, SymbolProvider {
 
@@ -41,7 +42,7 @@ public record ArrayType(Type elementType) implements Type, SymbolProvider {
                 .operator(Operator.INDEX_GET, elementType, params -> params.parameter("index", IntType.INSTANCE))
                 .operator(Operator.INDEX_SET, elementType, params -> params.parameter("index", IntType.INSTANCE).parameter("element", elementType))
                 .operator(Operator.ADD, this, params -> params.parameter("element", elementType))
-                .operator(Operator.FOR_IN, new ListType(elementType))
+                .operator(Operator.FOR_IN, TypeFactory.list(elementType))
                 .build();
     }
 
@@ -50,4 +51,15 @@ public record ArrayType(Type elementType) implements Type, SymbolProvider {
         return getTypeName();
     }
 
+    // instances from TypeFactory are canonical and mostly equal by identity
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ArrayType that && Objects.equals(elementType, that.elementType));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(elementType);
+    }
+
 }
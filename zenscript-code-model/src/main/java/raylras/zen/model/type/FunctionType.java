@@ -2,6 +2,7 @@ package raylras.zen.model.type;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 public record FunctionType(Type returnType, List<Type> parameterTypes) implements Type {
@@ -31,4 +32,15 @@ public record FunctionType(Type returnType, List<Type> parameterTypes) implement
         return getTypeName();
     }
 
+    // instances from TypeFactory are canonical and mostly equal by identity
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof FunctionType that && Objects.equals(returnType, that.returnType) && Objects.equals(parameterTypes, that.parameterTypes));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(returnType, parameterTypes);
+    }
+
 }
@@ -21,7 +21,7 @@ public enum IntRangeType implements Type, SymbolProvider {
         return SymbolFactory.builtinSymbols()
                 .variable("from", IntType.INSTANCE, Symbol.Modifier.IMPLICIT_VAL)
                 .variable("to", IntType.INSTANCE, Symbol.Modifier.IMPLICIT_VAL)
-                .operator(Operator.FOR_IN, new ListType(IntType.INSTANCE))
+                .operator(Operator.FOR_IN, TypeFactory.list(IntType.INSTANCE))
                 .build();
     }
 
@@ -5,6 +5,7 @@ import raylras.zen.model.symbol.SymbolProvider;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 public record IntersectionType(List<Type> typeList) implements Type, SymbolProvider {
@@ -40,4 +41,15 @@ public record IntersectionType(List<Type> typeList) implements Type, SymbolProvi
         return getTypeName();
     }
 
+    // instances from TypeFactory are canonical and mostly equal by identity
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof IntersectionType that && Objects.equals(typeList, that.typeList));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(typeList);
+    }
+
 }
@@ -7,6 +7,7 @@ import raylras.zen.model.symbol.SymbolFactory;
 import raylras.zen.model.symbol.SymbolProvider;
 
 import java.util.List;
+import java.util.Objects;
 
 public record ListType(Type elementType) implements Type, SymbolProvider {
 
@@ -43,4 +44,15 @@ public record ListType(Type elementType) implements Type, SymbolProvider {
                 .build();
     }
 
+    // instances from TypeFactory are canonical and mostly equal by identity
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof ListType that && Objects.equals(elementType, that.elementType));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 + Objects.hashCode(elementType);
+    }
+
 }
@@ -5,6 +5,7 @@ import raylras.zen.model.symbol.SymbolFactory;
 import raylras.zen.model.symbol.SymbolProvider;
 
 import java.util.List;
+import java.util.Objects;
 
 public record MapEntryType(Type keyType, Type valueType) implements Type, SymbolProvider {
 
@@ -31,4 +32,15 @@ public record MapEntryType(Type keyType, Type valueType) implements Type, Symbol
         return getTypeName();
     }
 
+    // instances from TypeFactory are canonical and mostly equal by identity
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof MapEntryType that && Objects.equals(keyType, that.keyType) && Objects.equals(valueType, that.valueType));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(keyType, valueType);
+    }
+
 }
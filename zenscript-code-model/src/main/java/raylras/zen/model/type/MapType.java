@@ -7,6 +7,7 @@ import raylras.zen.model.symbol.SymbolFactory;
 import raylras.zen.model.symbol.SymbolProvider;
 
 import java.util.List;
+import java.util.Objects;
 
 public record MapType(Type keyType, Type valueType) implements Type, SymbolProvider {
 
@@ -36,11 +37,11 @@ public record MapType(Type keyType, Type valueType) implements Type, SymbolProvi
     public List<Symbol> getSymbols() {
         return SymbolFactory.builtinSymbols()
                 .variable("length", IntType.INSTANCE, Symbol.Modifier.IMPLICIT_VAL)
-                .variable("keys", new ArrayType(keyType), Symbol.Modifier.IMPLICIT_VAL)
-                .variable("keySet", new ArrayType(keyType), Symbol.Modifier.IMPLICIT_VAL)
-                .variable("values", new ArrayType(valueType), Symbol.Modifier.IMPLICIT_VAL)
-                .variable("valueSet", new ArrayType(valueType), Symbol.Modifier.IMPLICIT_VAL)
-                .variable("entrySet", new ArrayType(new MapEntryType(keyType, valueType)), Symbol.Modifier.IMPLICIT_VAL)
+                .variable("keys", TypeFactory.array(keyType), Symbol.Modifier.IMPLICIT_VAL)
+                .variable("keySet", TypeFactory.array(keyType), Symbol.Modifier.IMPLICIT_VAL)
+                .variable("values", TypeFactory.array(valueType), Symbol.Modifier.IMPLICIT_VAL)
+                .variable("valueSet", TypeFactory.array(valueType), Symbol.Modifier.IMPLICIT_VAL)
+                .variable("entrySet", TypeFactory.array(TypeFactory.mapEntry(keyType, valueType)), Symbol.Modifier.IMPLICIT_VAL)
                 .operator(Operator.INDEX_GET, valueType, params -> params.parameter("key", keyType))
                 .operator(Operator.INDEX_SET, VoidType.INSTANCE, params -> params.parameter("key", keyType).parameter("value", valueType))
                 .operator(Operator.MEMBER_GET, valueType, params -> params.parameter("key", keyType))
@@ -54,4 +55,15 @@ public record MapType(Type keyType, Type valueType) implements Type, SymbolProvi
         return getTypeName();
     }
 
+    // instances from TypeFactory are canonical and mostly equal by identity
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof MapType that && Objects.equals(keyType, that.keyType) && Objects.equals(valueType, that.valueType));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(keyType, valueType);
+    }
+
 }
@@ -5,8 +5,9 @@ import raylras.zen.model.symbol.*;
 import java.util.*;
 
 public class MemberValidator implements Iterable<Symbol> {
-    private final Map<String, Symbol> fields = new HashMap<>();
-    private final Map<MemberValidator.ExecutableData, Symbol> executables = new HashMap<>();
+    // in the order the members were added, so that lookups are deterministic
+    private final Map<String, Symbol> fields = new LinkedHashMap<>();
+    private final Map<MemberValidator.ExecutableData, Symbol> executables = new LinkedHashMap<>();
     private OperatorFunctionSymbol caster = null;
 
     public void add(Symbol symbol) {
@@ -50,7 +51,7 @@ public class MemberValidator implements Iterable<Symbol> {
         } else {
             caster = SymbolFactory.createOperatorFunctionSymbol(
                     Operator.AS,
-                    new IntersectionType(List.of(caster.getReturnType(), operatorFunctionSymbol.getReturnType())),
+                    TypeFactory.intersection(List.of(caster.getReturnType(), operatorFunctionSymbol.getReturnType())),
                     Collections.emptyList()
             );
         }
@@ -0,0 +1,29 @@
+package raylras.zen.model.type;
+
+import raylras.zen.util.CacheStats;
+import raylras.zen.util.VersionedCache;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+public class SubtypeCache {
+
+    private static final int MAXIMUM_SIZE = 16384;
+
+    private final VersionedCache<TypePair, SubtypeResult> cache;
+
+    public SubtypeCache(LongSupplier versionSupplier) {
+        this.cache = new VersionedCache<>(MAXIMUM_SIZE, versionSupplier);
+    }
+
+    public SubtypeResult get(Type source, Type target, Supplier<SubtypeResult> loader) {
+        return cache.computeIfAbsent(new TypePair(source, target), pair -> loader.get());
+    }
+
+    public CacheStats getStats() {
+        return cache.getStats();
+    }
+
+    private record TypePair(Type source, Type target) {}
+
+}
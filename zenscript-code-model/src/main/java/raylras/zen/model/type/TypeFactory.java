@@ -0,0 +1,65 @@
+package raylras.zen.model.type;
+
+import raylras.zen.util.WeakInterner;
+
+import java.util.*;
+
+/**
+ * Creates composite types, structurally equal types created by this factory are the same instance.
+ * <p>
+ * Composite types are only created here, so they compare by identity and hash by identity,
+ * a hash the JVM computes once per instance. The interning tables are keyed by the components of a type,
+ * which are canonical themselves, and only hold the types weakly,
+ * a type is dropped from its table once nothing else refers to it.
+ */
+public final class TypeFactory {
+
+    private static final WeakInterner<Components, ArrayType> ARRAYS = new WeakInterner<>();
+    private static final WeakInterner<Components, ListType> LISTS = new WeakInterner<>();
+    private static final WeakInterner<Components, MapType> MAPS = new WeakInterner<>();
+    private static final WeakInterner<Components, MapEntryType> MAP_ENTRIES = new WeakInterner<>();
+    private static final WeakInterner<Components, FunctionType> FUNCTIONS = new WeakInterner<>();
+    private static final WeakInterner<Components, IntersectionType> INTERSECTIONS = new WeakInterner<>();
+
+    private TypeFactory() {}
+
+    public static ArrayType array(Type elementType) {
+        return ARRAYS.intern(new Components(elementType, null, null), key -> new ArrayType(key.first()));
+    }
+
+    public static ListType list(Type elementType) {
+        return LISTS.intern(new Components(elementType, null, null), key -> new ListType(key.first()));
+    }
+
+    public static MapType map(Type keyType, Type valueType) {
+        return MAPS.intern(new Components(keyType, valueType, null), key -> new MapType(key.first(), key.second()));
+    }
+
+    public static MapEntryType mapEntry(Type keyType, Type valueType) {
+        return MAP_ENTRIES.intern(new Components(keyType, valueType, null), key -> new MapEntryType(key.first(), key.second()));
+    }
+
+    public static FunctionType function(Type returnType, List<Type> parameterTypes) {
+        return FUNCTIONS.intern(new Components(returnType, null, copyOf(parameterTypes)), key -> new FunctionType(key.first(), key.rest()));
+    }
+
+    public static FunctionType function(Type returnType, Type... parameterTypes) {
+        return function(returnType, Arrays.asList(parameterTypes));
+    }
+
+    public static IntersectionType intersection(List<Type> typeList) {
+        return INTERSECTIONS.intern(new Components(null, null, copyOf(typeList)), key -> new IntersectionType(key.rest()));
+    }
+
+    public static int size() {
+        return ARRAYS.size() + LISTS.size() + MAPS.size() + MAP_ENTRIES.size() + FUNCTIONS.size() + INTERSECTIONS.size();
+    }
+
+    // unresolved types may be null, so List.copyOf is not an option
+    private static List<Type> copyOf(List<Type> types) {
+        return Collections.unmodifiableList(new ArrayList<>(types));
+    }
+
+    private record Components(Type first, Type second, List<Type> rest) {}
+
+}
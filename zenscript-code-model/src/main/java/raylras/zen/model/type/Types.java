@@ -5,6 +5,19 @@ import raylras.zen.model.CompilationEnvironment;
 public class Types {
 
     public static SubtypeResult test(Type source, Type target, CompilationEnvironment env) {
+        if (source == target) {
+            return SubtypeResult.SELF;
+        }
+        return env.getSubtypeCache().get(source, target, () -> testUncached(source, target, env));
+    }
+
+    public static boolean isPrimitive(Type type) {
+        return type instanceof NumberType
+                || type instanceof BoolType
+                || type instanceof VoidType;
+    }
+
+    private static SubtypeResult testUncached(Type source, Type target, CompilationEnvironment env) {
         if (source.equals(target)) {
             return SubtypeResult.SELF;
         }
@@ -17,10 +30,4 @@ public class Types {
         return SubtypeResult.MISMATCH;
     }
 
-    public static boolean isPrimitive(Type type) {
-        return type instanceof NumberType
-                || type instanceof BoolType
-                || type instanceof VoidType;
-    }
-
 }
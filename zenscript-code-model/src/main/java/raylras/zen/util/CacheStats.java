@@ -0,0 +1,19 @@
+package raylras.zen.util;
+
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRate() {
+        long requests = requests();
+        return (requests == 0) ? 1.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, evictions=%d, size=%d, hitRate=%.2f", hits, misses, evictions, size, hitRate());
+    }
+
+}
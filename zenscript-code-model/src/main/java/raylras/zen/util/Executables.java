@@ -44,6 +44,27 @@ public class Executables {
                 .orElse(null);
     }
 
+    /**
+     * @return the executable members of {@code owner} named {@code name}, including expands
+     */
+    public static List<Executable> getOverloads(Type owner, String name, CompilationEnvironment env) {
+        return env.getOverloadResolutionCache().getOverloads(owner, name, () -> Symbols.getExecutableMembersByName(owner, name, env));
+    }
+
+    public static Optional<Executable> findBestMatch(Type owner, String name, List<Type> argumentTypeList, CompilationEnvironment env) {
+        return env.getOverloadResolutionCache().getBestMatch(owner, name, argumentTypeList, () -> {
+            List<Executable> functions = getOverloads(owner, name, env);
+            return Optional.ofNullable(findBestMatch(functions, argumentTypeList, env));
+        });
+    }
+
+    public static Optional<Type> predictNextArgumentType(Type owner, String name, List<Type> argumentTypes, CompilationEnvironment env) {
+        return env.getOverloadResolutionCache().getNextArgumentType(owner, name, argumentTypes, () -> {
+            List<Executable> functions = getOverloads(owner, name, env);
+            return Optional.ofNullable(predictNextArgumentType(functions, argumentTypes, env));
+        });
+    }
+
     public static Type predictNextArgumentType(List<Executable> functions, List<Type> argumentTypes, CompilationEnvironment env) {
         Type found = null;
         SubtypeResult foundMatchingResult = SubtypeResult.MISMATCH;
@@ -0,0 +1,88 @@
+package raylras.zen.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * A thread-safe cache that holds at most {@code maximumSize} entries,
+ * evicting the least recently used entry when full, and each entry once its time to live has passed.
+ * Null values are not stored.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maximumSize;
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry<V>> map;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ExpiringCache(int maximumSize) {
+        this(maximumSize, System::nanoTime);
+    }
+
+    public ExpiringCache(int maximumSize, LongSupplier nanoClock) {
+        this.maximumSize = maximumSize;
+        this.nanoClock = nanoClock;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maximumSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry != null && nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+            map.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry != null) {
+            hits++;
+            return entry.value();
+        } else {
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * @param timeToLive the value is not stored if it is zero or negative
+     */
+    public synchronized void put(K key, V value, Duration timeToLive) {
+        if (value != null && !timeToLive.isNegative() && !timeToLive.isZero()) {
+            map.put(key, new Entry<>(value, nanoClock.getAsLong() + timeToLive.toNanos()));
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, map.size());
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+
+}
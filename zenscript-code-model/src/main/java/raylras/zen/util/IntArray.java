@@ -0,0 +1,78 @@
+package raylras.zen.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable array of primitive ints.
+ */
+public final class IntArray {
+
+    private int[] data;
+    private int size;
+
+    public IntArray() {
+        this(16);
+    }
+
+    public IntArray(int initialCapacity) {
+        this.data = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public static IntArray wrap(int[] values) {
+        IntArray array = new IntArray(0);
+        array.data = values;
+        array.size = values.length;
+        return array;
+    }
+
+    public void add(int value) {
+        if (size == data.length) {
+            // a wrapped array may be empty
+            data = Arrays.copyOf(data, Math.max(size * 2, 4));
+        }
+        data[size++] = value;
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return data[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(data, size);
+    }
+
+    /**
+     * @return a read-only view of this array, elements are boxed on access only
+     */
+    public List<Integer> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Integer get(int index) {
+                return IntArray.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+}
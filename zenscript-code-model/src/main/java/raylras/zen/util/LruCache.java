@@ -0,0 +1,88 @@
+package raylras.zen.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * A thread-safe cache that holds at most {@code maximumSize} entries,
+ * evicting the least recently used entry when full.
+ * Null values are not stored.
+ */
+public class LruCache<K, V> {
+
+    private final int maximumSize;
+    private final Map<K, V> map;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > LruCache.this.maximumSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        V value = map.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    /**
+     * The mapping function is called without holding the lock,
+     * so it is allowed to query this cache recursively.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            put(key, value);
+        }
+        return value;
+    }
+
+    public synchronized void invalidate(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        map.clear();
+    }
+
+    public synchronized void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        map.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue()));
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, map.size());
+    }
+
+}
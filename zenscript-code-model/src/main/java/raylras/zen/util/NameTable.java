@@ -0,0 +1,73 @@
+package raylras.zen.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interns identifiers, so that every symbol name is an atom: two equal names are one string instance,
+ * and a looked up name, once interned, can be compared with the symbol names by {@code ==}.
+ * <p>
+ * Atoms are canonicalized by the JVM string table, which is concurrent and holds its strings weakly,
+ * so names no longer referenced by any symbol are collected instead of growing the table with every edit.
+ * As string literals live in the same table, the names of built-in symbols are atoms as well.
+ * <p>
+ * Only {@link #declare} is counted, names interned for a lookup are not retained and save nothing.
+ */
+public class NameTable {
+
+    // String header + byte[] header, compact strings store latin-1 names in one byte per char
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    private final LongAdder declarations = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Interns a name that does not belong to an environment, such as the name of a built-in symbol.
+     */
+    public static String atom(String name) {
+        return (name != null) ? name.intern() : null;
+    }
+
+    public String intern(String name) {
+        return atom(name);
+    }
+
+    /**
+     * Interns the name of a declaration, which is retained as long as the declaration is.
+     */
+    public String declare(String name) {
+        if (name == null) {
+            return null;
+        }
+        declarations.increment();
+        String atom = name.intern();
+        if (atom != name) {
+            savedBytes.add(estimateSize(name));
+        }
+        return atom;
+    }
+
+    public void clear() {
+        declarations.reset();
+        savedBytes.reset();
+    }
+
+    public Stats getStats() {
+        return new Stats(declarations.sum(), savedBytes.sum());
+    }
+
+    private static long estimateSize(String name) {
+        return STRING_OVERHEAD + ((name.length() + 7) & ~7);
+    }
+
+    /**
+     * @param declarations the number of declared names so far
+     * @param savedBytes   the estimated size of the duplicated declared names that are not retained
+     */
+    public record Stats(long declarations, long savedBytes) {
+        @Override
+        public String toString() {
+            return String.format("declarations=%d, saved=%.1fKiB", declarations, savedBytes / 1024.0);
+        }
+    }
+
+}
@@ -0,0 +1,152 @@
+package raylras.zen.util;
+
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.symbol.Operator;
+import raylras.zen.model.symbol.OperatorFunctionSymbol;
+import raylras.zen.model.symbol.Symbol;
+import raylras.zen.model.symbol.SymbolProvider;
+import raylras.zen.model.type.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The operator functions of a type grouped by {@link Operator},
+ * along with the best binary candidate for each operand type seen so far.
+ * <p>
+ * The declared operators of built-in types don't depend on the environment,
+ * so they are collected once and shared by every environment.
+ */
+public final class OperatorTable {
+
+    private static final OperatorTable EMPTY = new OperatorTable(Collections.emptyMap());
+    private static final LruCache<Type, OperatorTable> BUILTIN_TABLES = new LruCache<>(1024);
+
+    private final Map<Operator, List<OperatorFunctionSymbol>> operators;
+    private final Map<Operand, Optional<OperatorFunctionSymbol>> binaryDispatch = new ConcurrentHashMap<>();
+
+    private OperatorTable(Map<Operator, List<OperatorFunctionSymbol>> operators) {
+        this.operators = operators;
+    }
+
+    public static OperatorTable empty() {
+        return EMPTY;
+    }
+
+    public static OperatorTable of(Iterable<? extends Symbol> symbols) {
+        Map<Operator, List<OperatorFunctionSymbol>> operators = new EnumMap<>(Operator.class);
+        for (Symbol symbol : symbols) {
+            if (symbol instanceof OperatorFunctionSymbol operator) {
+                operators.computeIfAbsent(operator.getOperator(), key -> new ArrayList<>(1)).add(operator);
+            }
+        }
+        if (operators.isEmpty()) {
+            return EMPTY;
+        }
+        operators.replaceAll((key, candidates) -> List.copyOf(candidates));
+        return new OperatorTable(operators);
+    }
+
+    public static OperatorTable create(Type type, CompilationEnvironment env) {
+        if (!(type instanceof SymbolProvider provider)) {
+            return EMPTY;
+        }
+        OperatorTable declared;
+        if (isEnvironmentIndependent(type)) {
+            declared = BUILTIN_TABLES.computeIfAbsent(type, key -> of(provider.getSymbols()));
+        } else {
+            declared = of(provider.getSymbols());
+        }
+        OperatorTable expands = of(env.getExpands(type)::iterator);
+        return declared.concat(expands);
+    }
+
+    public List<OperatorFunctionSymbol> get(Operator operator) {
+        return operators.getOrDefault(operator, Collections.emptyList());
+    }
+
+    public Optional<OperatorFunctionSymbol> getFirst(Operator operator) {
+        List<OperatorFunctionSymbol> candidates = get(operator);
+        return candidates.isEmpty() ? Optional.empty() : Optional.of(candidates.get(0));
+    }
+
+    /**
+     * Returns the candidate whose first parameter matches {@code rightType} best.
+     * Results are memoized, so a table must not outlive the environment version it was created for.
+     */
+    public Optional<OperatorFunctionSymbol> getBestBinary(Operator operator, Type rightType, CompilationEnvironment env) {
+        List<OperatorFunctionSymbol> candidates = get(operator);
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        if (candidates.size() == 1) {
+            return Optional.of(candidates.get(0));
+        }
+        Operand operand = new Operand(operator, rightType);
+        Optional<OperatorFunctionSymbol> result = binaryDispatch.get(operand);
+        if (result == null) {
+            result = Optional.ofNullable(rank(candidates, rightType, env));
+            binaryDispatch.putIfAbsent(operand, result);
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return operators.isEmpty();
+    }
+
+    private OperatorTable concat(OperatorTable other) {
+        if (other.isEmpty()) {
+            // a fresh table, the binary dispatch depends on the environment
+            return this.isEmpty() ? EMPTY : new OperatorTable(this.operators);
+        }
+        Map<Operator, List<OperatorFunctionSymbol>> merged = new EnumMap<>(Operator.class);
+        merged.putAll(this.operators);
+        other.operators.forEach((operator, candidates) -> merged.merge(operator, candidates, (a, b) -> {
+            List<OperatorFunctionSymbol> list = new ArrayList<>(a.size() + b.size());
+            list.addAll(a);
+            list.addAll(b);
+            return List.copyOf(list);
+        }));
+        return new OperatorTable(merged);
+    }
+
+    private static OperatorFunctionSymbol rank(List<OperatorFunctionSymbol> candidates, Type rightType, CompilationEnvironment env) {
+        OperatorFunctionSymbol found = null;
+        SubtypeResult foundResult = null;
+        for (OperatorFunctionSymbol candidate : candidates) {
+            SubtypeResult result = Types.test(rightType, candidate.getParameterList().get(0).getType(), env);
+            if (foundResult == null || result.getPriority() > foundResult.getPriority()) {
+                found = candidate;
+                foundResult = result;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isEnvironmentIndependent(Type type) {
+        if (type instanceof ClassType || type instanceof IntersectionType) {
+            return false;
+        }
+        if (type instanceof ArrayType arrayType) {
+            return isEnvironmentIndependent(arrayType.elementType());
+        }
+        if (type instanceof ListType listType) {
+            return isEnvironmentIndependent(listType.elementType());
+        }
+        if (type instanceof MapType mapType) {
+            return isEnvironmentIndependent(mapType.keyType()) && isEnvironmentIndependent(mapType.valueType());
+        }
+        if (type instanceof MapEntryType entryType) {
+            return isEnvironmentIndependent(entryType.keyType()) && isEnvironmentIndependent(entryType.valueType());
+        }
+        if (type instanceof FunctionType functionType) {
+            return isEnvironmentIndependent(functionType.returnType())
+                    && functionType.parameterTypes().stream().allMatch(OperatorTable::isEnvironmentIndependent);
+        }
+        return true;
+    }
+
+    private record Operand(Operator operator, Type type) {}
+
+}
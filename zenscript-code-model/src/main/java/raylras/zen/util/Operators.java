@@ -9,31 +9,33 @@ import raylras.zen.model.type.SubtypeResult;
 import raylras.zen.model.type.Type;
 import raylras.zen.model.type.Types;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 public class Operators {
 
     public static List<OperatorFunctionSymbol> find(Type type, CompilationEnvironment env, Operator operator) {
-        return Symbols.getMember(type, OperatorFunctionSymbol.class, env, it -> it.getOperator() == operator);
+        return env.getOperatorTable(type).get(operator);
     }
 
     public static List<OperatorFunctionSymbol> find(Type type, CompilationEnvironment env, Operator... operators) {
-        Set<Operator> candidates = Set.of(operators);
-        return Symbols.getMember(type, OperatorFunctionSymbol.class, env, it -> candidates.contains(it.getOperator()));
+        OperatorTable table = env.getOperatorTable(type);
+        List<OperatorFunctionSymbol> result = new ArrayList<>();
+        for (Operator operator : operators) {
+            result.addAll(table.get(operator));
+        }
+        return result;
     }
 
     public static Optional<Type> getUnaryResult(Type type, Operator operator, CompilationEnvironment env) {
-        return find(type, env, operator).stream()
-                .findFirst()
+        return env.getOperatorTable(type).getFirst(operator)
                 .map(OperatorFunctionSymbol::getReturnType);
     }
 
     public static Optional<Type> getBinaryResult(Type type, Operator operator, CompilationEnvironment env, Type rightType) {
-        return find(type, env, operator).stream()
-                .max(Comparator.comparing(it -> Types.test(rightType, it.getParameterList().get(0).getType(), env), SubtypeResult.PRIORITY_COMPARATOR))
+        return env.getOperatorTable(type).getBestBinary(operator, rightType, env)
                 .map(OperatorFunctionSymbol::getReturnType);
     }
 
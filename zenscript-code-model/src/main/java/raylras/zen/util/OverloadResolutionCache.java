@@ -0,0 +1,58 @@
+package raylras.zen.util;
+
+import raylras.zen.model.symbol.Executable;
+import raylras.zen.model.type.Type;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of overload resolution per call site shape,
+ * that is the owner type, the member name and the argument types,
+ * as well as the overload set per owner type and member name.
+ */
+public class OverloadResolutionCache {
+
+    private static final int MAXIMUM_SIZE = 4096;
+
+    private final VersionedCache<OverloadSet, List<Executable>> overloads;
+    private final VersionedCache<CallSite, Optional<Executable>> bestMatches;
+    private final VersionedCache<CallSite, Optional<Type>> nextArgumentTypes;
+
+    public OverloadResolutionCache(LongSupplier versionSupplier) {
+        this.overloads = new VersionedCache<>(MAXIMUM_SIZE, versionSupplier);
+        this.bestMatches = new VersionedCache<>(MAXIMUM_SIZE, versionSupplier);
+        this.nextArgumentTypes = new VersionedCache<>(MAXIMUM_SIZE, versionSupplier);
+    }
+
+    public List<Executable> getOverloads(Type owner, String name, Supplier<List<Executable>> loader) {
+        return overloads.computeIfAbsent(new OverloadSet(owner, name), overloadSet -> List.copyOf(loader.get()));
+    }
+
+    public Optional<Executable> getBestMatch(Type owner, String name, List<Type> argumentTypes, Supplier<Optional<Executable>> loader) {
+        return bestMatches.computeIfAbsent(new CallSite(owner, name, List.copyOf(argumentTypes)), callSite -> loader.get());
+    }
+
+    public Optional<Type> getNextArgumentType(Type owner, String name, List<Type> argumentTypes, Supplier<Optional<Type>> loader) {
+        return nextArgumentTypes.computeIfAbsent(new CallSite(owner, name, List.copyOf(argumentTypes)), callSite -> loader.get());
+    }
+
+    public CacheStats getOverloadStats() {
+        return overloads.getStats();
+    }
+
+    public CacheStats getBestMatchStats() {
+        return bestMatches.getStats();
+    }
+
+    public CacheStats getNextArgumentTypeStats() {
+        return nextArgumentTypes.getStats();
+    }
+
+    private record OverloadSet(Type owner, String name) {}
+
+    private record CallSite(Type owner, String name, List<Type> argumentTypes) {}
+
+}
@@ -1,15 +1,17 @@
 package raylras.zen.util;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class PackageTree<V> {
-    private final Map<String, PackageTree<V>> subTrees = new HashMap<>();
-    private V element;
+    private final Map<String, PackageTree<V>> subTrees = new ConcurrentHashMap<>();
+    private volatile V element;
     private final String delimiter;
     private final Pattern delimiterRegex;
 
@@ -33,6 +35,31 @@ public class PackageTree<V> {
         leaf.element = value;
     }
 
+    /**
+     * Removes the element at the path, and the nodes left with neither an element nor a subtree.
+     */
+    public void remove(String path) {
+        List<PackageTree<V>> trail = new ArrayList<>();
+        PackageTree<V> node = this;
+        String[] components = delimiterRegex.split(path);
+        for (String s : components) {
+            trail.add(node);
+            node = node.subTrees.get(s);
+            if (node == null) {
+                return;
+            }
+        }
+        node.element = null;
+        for (int i = components.length - 1; i >= 0; i--) {
+            PackageTree<V> child = node;
+            node = trail.get(i);
+            if (child.hasElement() || !child.isEmpty()) {
+                break;
+            }
+            node.subTrees.remove(components[i], child);
+        }
+    }
+
     public V getElement() {
         return element;
     }
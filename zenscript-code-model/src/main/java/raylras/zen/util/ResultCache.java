@@ -0,0 +1,82 @@
+package raylras.zen.util;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of document-level requests, one per {@link Key},
+ * valid as long as the version of the document stays the same.
+ * <p>
+ * Outdated results are not dropped until they are replaced,
+ * so that requests answering with a delta can still reach the previous result.
+ */
+public class ResultCache {
+
+    private final LongSupplier versionSupplier;
+    private final Map<Key<?>, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResultCache(LongSupplier versionSupplier) {
+        this.versionSupplier = versionSupplier;
+    }
+
+    public <V> V computeIfAbsent(Key<V> key, Supplier<V> loader) {
+        return computeIfAbsent(key, value -> true, loader);
+    }
+
+    /**
+     * For results that also depend on something other than the document,
+     * a cached result is only returned if it is still {@code valid}.
+     */
+    public <V> V computeIfAbsent(Key<V> key, Predicate<? super V> valid, Supplier<V> loader) {
+        long version = versionSupplier.getAsLong();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version && valid.test(key.cast(entry.value()))) {
+            hits.increment();
+            return key.cast(entry.value());
+        }
+        misses.increment();
+        V value = loader.get();
+        // the value was computed against an outdated document, don't keep it
+        if (versionSupplier.getAsLong() == version) {
+            entries.put(key, new Entry(version, value));
+        }
+        return value;
+    }
+
+    /**
+     * @return the latest result of the key, which may be outdated
+     */
+    public <V> Optional<V> getLatest(Key<V> key) {
+        return Optional.ofNullable(entries.get(key))
+                .map(Entry::value)
+                .map(key::cast);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), 0, entries.size());
+    }
+
+    /**
+     * Identifies the results of a provider.
+     */
+    public record Key<V>(String name) {
+        @SuppressWarnings("unchecked")
+        V cast(Object value) {
+            return (V) value;
+        }
+    }
+
+    private record Entry(long version, Object value) {}
+
+}
@@ -0,0 +1,50 @@
+package raylras.zen.util;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import raylras.zen.model.symbol.ClassSymbol;
+import raylras.zen.model.symbol.Symbol;
+
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the symbols resolved for the reference nodes of a unit.
+ * <p>
+ * Parse tree nodes compare by identity, a reparsed unit never hits the entries of its previous tree,
+ * and those entries are dropped together with the rest once the version has changed.
+ */
+public class SymbolLookupCache {
+
+    private static final int MAXIMUM_SIZE = 8192;
+
+    private final VersionedCache<ParseTree, Collection<Symbol>> symbols;
+    private final VersionedCache<ParseTree, Collection<ClassSymbol>> classes;
+
+    public SymbolLookupCache(LongSupplier versionSupplier) {
+        this.symbols = new VersionedCache<>(MAXIMUM_SIZE, versionSupplier);
+        this.classes = new VersionedCache<>(MAXIMUM_SIZE, versionSupplier);
+    }
+
+    public Collection<Symbol> getSymbols(ParseTree cst, Function<ParseTree, Collection<Symbol>> loader) {
+        return symbols.computeIfAbsent(cst, loader);
+    }
+
+    public Collection<ClassSymbol> getClasses(ParseTree cst, Function<ParseTree, Collection<ClassSymbol>> loader) {
+        return classes.computeIfAbsent(cst, loader);
+    }
+
+    public void invalidateAll() {
+        symbols.invalidateAll();
+        classes.invalidateAll();
+    }
+
+    public CacheStats getSymbolStats() {
+        return symbols.getStats();
+    }
+
+    public CacheStats getClassStats() {
+        return classes.getStats();
+    }
+
+}
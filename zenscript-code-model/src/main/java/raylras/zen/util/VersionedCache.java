@@ -0,0 +1,60 @@
+package raylras.zen.util;
+
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link LruCache} that drops all of its entries whenever the version reported by
+ * {@code versionSupplier} changes, e.g. when a unit of the environment is reloaded.
+ */
+public class VersionedCache<K, V> extends LruCache<K, V> {
+
+    private final LongSupplier versionSupplier;
+    private long version;
+
+    public VersionedCache(int maximumSize, LongSupplier versionSupplier) {
+        super(maximumSize);
+        this.versionSupplier = versionSupplier;
+        this.version = versionSupplier.getAsLong();
+    }
+
+    @Override
+    public synchronized V get(K key) {
+        validate();
+        return super.get(key);
+    }
+
+    @Override
+    public synchronized void put(K key, V value) {
+        validate();
+        super.put(key, value);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        long expectedVersion = versionSupplier.getAsLong();
+        V value = get(key);
+        if (value == null) {
+            value = mappingFunction.apply(key);
+            putIfVersionMatches(key, value, expectedVersion);
+        }
+        return value;
+    }
+
+    private synchronized void putIfVersionMatches(K key, V value, long expectedVersion) {
+        validate();
+        // the value was computed against an outdated environment, don't keep it
+        if (version == expectedVersion) {
+            super.put(key, value);
+        }
+    }
+
+    private void validate() {
+        long current = versionSupplier.getAsLong();
+        if (current != version) {
+            invalidateAll();
+            version = current;
+        }
+    }
+
+}
@@ -0,0 +1,42 @@
+package raylras.zen.util;
+
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A lazily loaded value that is reloaded once the version has changed.
+ * <p>
+ * Like {@link VersionedCache}, a value loaded while the version was changing is returned but not kept.
+ */
+public class VersionedValue<V> implements Supplier<V> {
+
+    private final LongSupplier versionSupplier;
+    private final Supplier<V> loader;
+    private volatile Entry<V> entry;
+
+    public VersionedValue(LongSupplier versionSupplier, Supplier<V> loader) {
+        this.versionSupplier = versionSupplier;
+        this.loader = loader;
+    }
+
+    @Override
+    public V get() {
+        long version = versionSupplier.getAsLong();
+        Entry<V> current = entry;
+        if (current != null && current.version() == version) {
+            return current.value();
+        }
+        V value = loader.get();
+        if (versionSupplier.getAsLong() == version) {
+            entry = new Entry<>(version, value);
+        }
+        return value;
+    }
+
+    public void invalidate() {
+        entry = null;
+    }
+
+    private record Entry<V>(long version, V value) {}
+
+}
@@ -1,6 +1,7 @@
 package raylras.zen.util;
 
 import java.text.DecimalFormat;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
@@ -30,6 +31,19 @@ public class Watcher<T> {
         return watcher;
     }
 
+    /**
+     * Watches until the future completes, the returned future completes exceptionally if it does.
+     */
+    public static <T> CompletableFuture<Watcher<T>> watchAsync(Supplier<CompletableFuture<T>> supplier) {
+        Watcher<T> watcher = new Watcher<>();
+        watcher.start = System.nanoTime();
+        return supplier.get().thenApply(result -> {
+            watcher.result = result;
+            watcher.stop = System.nanoTime();
+            return watcher;
+        });
+    }
+
     public boolean isResultPresent() {
         return result != null;
     }
@@ -0,0 +1,62 @@
+package raylras.zen.util;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A thread-safe table of canonical instances, one per key, which only holds the instances weakly:
+ * an entry is dropped once nothing else refers to its instance.
+ * <p>
+ * Lookups don't lock, and two threads interning an equal key at the same time get the same instance.
+ */
+public final class WeakInterner<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<K, V>> table = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+    /**
+     * @param factory creates the instance if there is none for the key, it may be called more than once
+     */
+    public V intern(K key, Function<? super K, ? extends V> factory) {
+        expungeStaleEntries();
+        while (true) {
+            Entry<K, V> entry = table.get(key);
+            V canonical = (entry != null) ? entry.get() : null;
+            if (canonical != null) {
+                return canonical;
+            }
+            V value = factory.apply(key);
+            Entry<K, V> created = new Entry<>(key, value, queue);
+            boolean installed = (entry == null) ? table.putIfAbsent(key, created) == null : table.replace(key, entry, created);
+            if (installed) {
+                return value;
+            }
+            // another thread got there first, take its instance
+        }
+    }
+
+    public int size() {
+        expungeStaleEntries();
+        return table.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeStaleEntries() {
+        Entry<K, V> entry;
+        while ((entry = (Entry<K, V>) queue.poll()) != null) {
+            table.remove(entry.key, entry);
+        }
+    }
+
+    private static final class Entry<K, V> extends WeakReference<V> {
+        final K key;
+
+        Entry(K key, V value, ReferenceQueue<V> queue) {
+            super(value, queue);
+            this.key = key;
+        }
+    }
+
+}
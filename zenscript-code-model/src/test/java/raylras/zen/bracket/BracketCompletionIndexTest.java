@@ -0,0 +1,62 @@
+package raylras.zen.bracket;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class BracketCompletionIndexTest {
+
+    private static final String JSON = """
+            [
+              {
+                "type": "crafttweaker.item.IItemStack",
+                "regex": "item:.*",
+                "entries": [
+                  {"_id": "minecraft:stone", "_name": "Stone"},
+                  {"_id": "minecraft:stick", "_name": "Stick"},
+                  {"_id": "mod:stone_brick"}
+                ]
+              }
+            ]
+            """;
+
+    @Test
+    void findsEntriesByIdPathAndName() throws IOException {
+        BracketCompletionIndex index = createIndex();
+        Assertions.assertEquals(List.of("minecraft:stick", "minecraft:stone"), labels(index.find("minecraft:st", 10)));
+        // by the path of the id and by the name, case-insensitive
+        Assertions.assertEquals(List.of("minecraft:stick", "Stick"), labels(index.find("STI", 10)));
+        Assertions.assertEquals(List.of("minecraft:stone", "Stone", "mod:stone_brick"), labels(index.find("stone", 10)));
+        Assertions.assertEquals(List.of(), labels(index.find("dirt", 10)));
+    }
+
+    @Test
+    void findsEachEntryOnceUpToTheLimit() throws IOException {
+        BracketCompletionIndex index = createIndex();
+        // the id and the name of each entry, the path of the id is found as the id
+        Assertions.assertEquals(5, index.find("", 10).size());
+        Assertions.assertEquals(2, index.find("", 2).size());
+        BracketCompletionIndex.Completion byName = index.find("Stone", 10).get(1);
+        Assertions.assertEquals("minecraft:stone>", byName.insertText());
+        Assertions.assertEquals("minecraft:stone", byName.description());
+    }
+
+    @Test
+    void emptyIndexFindsNothing() {
+        Assertions.assertEquals(List.of(), BracketCompletionIndex.EMPTY.find("a", 10));
+        Assertions.assertEquals(0, BracketCompletionIndex.EMPTY.size());
+    }
+
+    private static BracketCompletionIndex createIndex() throws IOException {
+        return BracketCompletionIndex.create(BracketHandlerStore.read(ByteBuffer.wrap(JSON.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private static List<String> labels(List<BracketCompletionIndex.Completion> completions) {
+        return completions.stream().map(BracketCompletionIndex.Completion::label).toList();
+    }
+
+}
@@ -0,0 +1,95 @@
+package raylras.zen.bracket;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Optional;
+
+class BracketHandlerStoreTest {
+
+    private static final String JSON = """
+            [
+              {
+                "type": "crafttweaker.item.IItemStack",
+                "regex": "item:.*",
+                "entries": [
+                  {"_id": "minecraft:stone", "_name": "Stone", "_icon": "iVBORw0KGgo=", "tags": ["a", "b"], "meta": 0},
+                  {"_id": "minecraft:stick", "_name": "Stick \\u00e9\\"\\n", "unknown": {"nested": [1, 2]}}
+                ]
+              },
+              {
+                "type": "crafttweaker.liquid.ILiquidStack",
+                "regex": "liquid:.*",
+                "entries": [
+                  {"_id": "water", "_name": "\u6c34"}
+                ]
+              }
+            ]
+            """;
+
+    @Test
+    void readsEntriesIntoColumns() throws IOException {
+        BracketHandlerStore store = BracketHandlerStore.read(ByteBuffer.wrap(JSON.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(2, store.getMirrorCount());
+        Assertions.assertEquals(3, store.getEntryCount());
+        Assertions.assertEquals("crafttweaker.liquid.ILiquidStack", store.getMirrorType(1));
+        Assertions.assertEquals(2, store.getEntryStart(1));
+        Assertions.assertEquals(3, store.getEntryEnd(1));
+
+        Assertions.assertEquals(Optional.of("minecraft:stone"), store.getFirst(0, "_id"));
+        Assertions.assertEquals(List.of("a", "b"), store.get(0, "tags"));
+        Assertions.assertEquals(Optional.of("0"), store.getFirst(0, "meta"));
+        Assertions.assertEquals(Optional.of("Stick \u00e9\"\n"), store.getFirst(1, "_name"));
+        Assertions.assertEquals(Optional.empty(), store.getFirst(1, "unknown"));
+        Assertions.assertEquals(Optional.of("\u6c34"), store.getFirst(2, "_name"));
+    }
+
+    @Test
+    void keepsIconsAsByteRanges() throws IOException {
+        BracketHandlerStore store = BracketHandlerStore.read(ByteBuffer.wrap(JSON.getBytes(StandardCharsets.UTF_8)));
+        Assertions.assertEquals(Optional.of("iVBORw0KGgo="), store.getFirst(0, "_icon"));
+        Assertions.assertEquals(Optional.of("Stone"), store.getMirrors().get(0).entries().get(0).getFirst("_name"));
+    }
+
+    @Test
+    void reusesCacheUntilJsonChanges(@TempDir Path dir) throws IOException {
+        Path jsonPath = dir.resolve("brackets.json");
+        Path cachePath = dir.resolve("brackets.cache");
+        Files.writeString(jsonPath, JSON);
+
+        BracketHandlerStore built = BracketHandlerStore.load(jsonPath, cachePath);
+        Assertions.assertTrue(Files.exists(cachePath));
+        Assertions.assertEquals(3, built.getEntryCount());
+
+        // touched only, the same content is found by the hash
+        Files.setLastModifiedTime(jsonPath, FileTime.fromMillis(Files.getLastModifiedTime(jsonPath).toMillis() + 2000));
+        BracketHandlerStore cached = BracketHandlerStore.load(jsonPath, cachePath);
+        Assertions.assertEquals(Optional.of("\u6c34"), cached.getFirst(2, "_name"));
+        Assertions.assertEquals(List.of("a", "b"), cached.get(0, "tags"));
+
+        Files.writeString(jsonPath, JSON.replace("minecraft:stone", "minecraft:dirt"));
+        BracketHandlerStore rebuilt = BracketHandlerStore.load(jsonPath, cachePath);
+        Assertions.assertEquals(Optional.of("minecraft:dirt"), rebuilt.getFirst(0, "_id"));
+    }
+
+    @Test
+    void ignoresInvalidCache(@TempDir Path dir) throws IOException {
+        Path jsonPath = dir.resolve("brackets.json");
+        Path cachePath = dir.resolve("brackets.cache");
+        Files.writeString(jsonPath, JSON);
+        Files.write(cachePath, new byte[]{1, 2, 3});
+
+        BracketHandlerStore store = BracketHandlerStore.load(jsonPath, cachePath);
+        Assertions.assertEquals(Optional.of("minecraft:stone"), store.getFirst(0, "_id"));
+        Assertions.assertTrue(Files.size(cachePath) > 3);
+    }
+
+}
@@ -0,0 +1,92 @@
+package raylras.zen.bracket;
+
+import org.eclipse.lsp4j.jsonrpc.Launcher;
+import org.eclipse.lsp4j.jsonrpc.services.JsonRequest;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local stand-in for the Minecraft instance, answering the queries of {@link RpcClient}
+ * once {@link #respond()} is called.
+ * Public for the json rpc endpoint to invoke {@link #query}.
+ */
+public final class FakeRpcServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile CompletableFuture<Void> responding = new CompletableFuture<>();
+
+    FakeRpcServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "fake-rpc-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    int getQueryCount() {
+        return queries.get();
+    }
+
+    int getConnectionCount() {
+        return connections.get();
+    }
+
+    /**
+     * Answers the queries received so far and all later ones.
+     */
+    void respond() {
+        responding.complete(null);
+    }
+
+    /**
+     * Closes the connections accepted so far, as a restarted instance would.
+     */
+    void disconnect() throws IOException {
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+    }
+
+    @JsonRequest
+    public CompletableFuture<Map<String, Object>> query(String validExpr, boolean extras) {
+        queries.incrementAndGet();
+        return responding.thenApply(v -> Map.of("_id", validExpr, "tags", List.of("a", "b")));
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        disconnect();
+    }
+
+    private void accept() {
+        try {
+            while (!serverSocket.isClosed()) {
+                Socket socket = serverSocket.accept();
+                sockets.add(socket);
+                connections.incrementAndGet();
+                Launcher<Client> launcher = Launcher.createLauncher(this, Client.class, socket.getInputStream(), socket.getOutputStream());
+                launcher.startListening();
+            }
+        } catch (IOException ignored) {
+            // closed
+        }
+    }
+
+    private interface Client {}
+
+}
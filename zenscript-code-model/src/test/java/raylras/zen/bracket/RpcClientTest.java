@@ -0,0 +1,132 @@
+package raylras.zen.bracket;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class RpcClientTest {
+
+    @Test
+    void pipelinesQueriesOverOneConnection() throws Exception {
+        try (FakeRpcServer server = new FakeRpcServer()) {
+            RpcClient client = new RpcClient("127.0.0.1", server.getPort(), Duration.ofSeconds(10));
+            CompletableFuture<Map<String, List<String>>> stone = client.queryEntryProperties("item:minecraft:stone");
+            CompletableFuture<Map<String, List<String>>> stick = client.queryEntryProperties("item:minecraft:stick");
+            CompletableFuture<Map<String, List<String>>> water = client.queryEntryProperties("liquid:water");
+            // all of them are sent before any is answered
+            awaitQueries(server, 3);
+            Assertions.assertFalse(stone.isDone());
+
+            server.respond();
+            Assertions.assertEquals(List.of("item:minecraft:stone"), stone.get(10, TimeUnit.SECONDS).get("_id"));
+            Assertions.assertEquals(List.of("item:minecraft:stick"), stick.get(10, TimeUnit.SECONDS).get("_id"));
+            Assertions.assertEquals(List.of("a", "b"), water.get(10, TimeUnit.SECONDS).get("tags"));
+            Assertions.assertEquals(1, server.getConnectionCount());
+            client.close();
+        }
+    }
+
+    @Test
+    void sharesIdenticalQueriesInFlight() throws Exception {
+        try (FakeRpcServer server = new FakeRpcServer()) {
+            RpcClient client = new RpcClient("127.0.0.1", server.getPort(), Duration.ofSeconds(10));
+            CompletableFuture<Map<String, List<String>>> first = client.queryEntryProperties("item:minecraft:stone");
+            CompletableFuture<Map<String, List<String>>> second = client.queryEntryProperties("item:minecraft:stone");
+            awaitQueries(server, 1);
+
+            server.respond();
+            Assertions.assertEquals(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, server.getQueryCount());
+
+            // cached, until invalidated
+            client.queryEntryProperties("item:minecraft:stone").get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(1, server.getQueryCount());
+            Assertions.assertEquals(1, client.getCacheStats().hits());
+            client.invalidateCache();
+            client.queryEntryProperties("item:minecraft:stone").get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, server.getQueryCount());
+            client.close();
+        }
+    }
+
+    @Test
+    void queriesAgainWithoutCache() throws Exception {
+        try (FakeRpcServer server = new FakeRpcServer()) {
+            RpcClient client = new RpcClient("127.0.0.1", server.getPort(), Duration.ofSeconds(10), 0, Duration.ZERO, Duration.ZERO);
+            server.respond();
+            client.queryEntryProperties("item:minecraft:stone").get(10, TimeUnit.SECONDS);
+            client.queryEntryProperties("item:minecraft:stone").get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, server.getQueryCount());
+            client.close();
+        }
+    }
+
+    @Test
+    void timesOutWithoutBlocking() throws Exception {
+        try (FakeRpcServer server = new FakeRpcServer()) {
+            RpcClient client = new RpcClient("127.0.0.1", server.getPort(), Duration.ofMillis(200));
+            CompletableFuture<Map<String, List<String>>> future = client.queryEntryProperties("item:minecraft:stone");
+            Assertions.assertFalse(future.isDone());
+            ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            Assertions.assertInstanceOf(TimeoutException.class, e.getCause());
+
+            // the connection is kept for a slow remote
+            server.respond();
+            client.queryEntryProperties("item:minecraft:stone").get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(1, server.getConnectionCount());
+            client.close();
+        }
+    }
+
+    @Test
+    void connectsAgainOnceTheRemoteHasGone() throws Exception {
+        try (FakeRpcServer server = new FakeRpcServer()) {
+            RpcClient client = new RpcClient("127.0.0.1", server.getPort(), Duration.ofSeconds(10));
+            server.respond();
+            client.queryEntryProperties("item:minecraft:stone").get(10, TimeUnit.SECONDS);
+            Assertions.assertTrue(client.isConnected());
+
+            server.disconnect();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (client.isConnected() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertFalse(client.isConnected());
+
+            client.queryEntryProperties("item:minecraft:stick").get(10, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, server.getConnectionCount());
+            client.close();
+        }
+    }
+
+    @Test
+    void failsWhenNotRunning() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        RpcClient client = new RpcClient("127.0.0.1", port, Duration.ofSeconds(10));
+        ExecutionException e = Assertions.assertThrows(ExecutionException.class, () -> client.queryEntryProperties("item:minecraft:stone").get(10, TimeUnit.SECONDS));
+        Assertions.assertInstanceOf(ConnectException.class, e.getCause());
+        client.close();
+    }
+
+    private static void awaitQueries(FakeRpcServer server, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (server.getQueryCount() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(count, server.getQueryCount());
+    }
+
+}
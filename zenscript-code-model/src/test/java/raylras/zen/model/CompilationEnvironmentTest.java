@@ -0,0 +1,64 @@
+package raylras.zen.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.symbol.ClassSymbol;
+import raylras.zen.model.symbol.PackageSymbol;
+import raylras.zen.model.symbol.Symbol;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class CompilationEnvironmentTest {
+
+    @Test
+    void keepsTheClassIndexPerDeclaringUnit() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        // both named scripts.Foo, one as a script and one as a class
+        CompilationUnit declaration = env.createUnit(env.getRoot().resolve("Foo.dzs"));
+        Compilations.load(declaration, "zenClass Foo {}");
+        ClassSymbol classSymbol = (ClassSymbol) declaration.getTopLevelSymbols().iterator().next();
+        Assertions.assertEquals("scripts.Foo", classSymbol.getQualifiedName());
+        CompilationUnit script = env.createUnit(env.getRoot().resolve("Foo.zs"));
+        Compilations.load(script, "print(1);");
+        Assertions.assertNotSame(classSymbol, env.getClassTree().get("scripts.Foo").getElement());
+
+        // reloading the script keeps the class
+        Compilations.load(script, "print(2);");
+        Assertions.assertEquals(List.of(classSymbol), env.getClassesBySimpleName("Foo"));
+
+        env.removeUnit(script.getPath());
+        Assertions.assertSame(classSymbol, env.getClassTree().get("scripts.Foo").getElement());
+        Assertions.assertEquals(List.of(classSymbol), env.getClassesBySimpleName("Foo"));
+
+        Compilations.load(declaration, "zenClass Bar {}");
+        Symbol reloaded = env.getClassTree().get("scripts.Foo").getElement();
+        Assertions.assertNotSame(classSymbol, reloaded);
+        Assertions.assertEquals(List.of(), env.getClassesBySimpleName("Foo"));
+
+        env.removeUnit(declaration.getPath());
+        Assertions.assertFalse(env.getClassTree().get("scripts.Foo").hasElement());
+        Assertions.assertEquals(List.of(), env.getClassesBySimpleName("Bar"));
+    }
+
+    @Test
+    void rebuildsTheRootPackageOnlyWhenItsShapeChanges() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit script = env.createUnit(env.getRoot().resolve("Main.zs"));
+        Compilations.load(script, "print(1);");
+        CompilationUnit declaration = env.createUnit(env.getRoot().resolve("Foo.dzs"));
+        Compilations.load(declaration, "zenClass Foo {}");
+        PackageSymbol rootPackage = env.getRootPackage();
+
+        Compilations.load(script, "print(2);");
+        Assertions.assertSame(rootPackage, env.getRootPackage());
+
+        Compilations.load(declaration, "zenClass Foo {}");
+        Assertions.assertNotSame(rootPackage, env.getRootPackage());
+        rootPackage = env.getRootPackage();
+
+        env.createUnit(env.getRoot().resolve("Other.zs"));
+        Assertions.assertNotSame(rootPackage, env.getRootPackage());
+    }
+
+}
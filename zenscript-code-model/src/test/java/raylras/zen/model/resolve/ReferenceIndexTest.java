@@ -0,0 +1,71 @@
+package raylras.zen.model.resolve;
+
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.symbol.Symbol;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class ReferenceIndexTest {
+
+    @Test
+    void findsReferencesAcrossUnits() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit lib = load(env, "Lib.zs", "global foo as int = 1;");
+        CompilationUnit main = load(env, "Main.zs", """
+                print(foo);
+                print(foo + 1);
+                """);
+        Symbol foo = lib.getTopLevelSymbols().get(0);
+
+        List<TerminalNode> references = env.getReferenceIndex().getReferences(foo, main);
+        Assertions.assertEquals(2, references.size());
+        Assertions.assertEquals(List.of(foo), List.copyOf(env.getReferenceIndex().getReferences(main).keySet()));
+        Assertions.assertTrue(env.getReferenceIndex().getReferences(foo, lib).isEmpty());
+    }
+
+    @Test
+    void collectsAgainAfterDependencyChanged() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit lib = load(env, "Lib.zs", "global foo as int = 1;");
+        CompilationUnit main = load(env, "Main.zs", "print(foo);");
+        Symbol before = lib.getTopLevelSymbols().get(0);
+        Assertions.assertEquals(1, env.getReferenceIndex().getReferences(before, main).size());
+
+        Compilations.load(lib, "global foo as int = 2;");
+        Symbol after = lib.getTopLevelSymbols().get(0);
+        Assertions.assertTrue(env.getReferenceIndex().getReferences(before, main).isEmpty());
+        Assertions.assertEquals(1, env.getReferenceIndex().getReferences(after, main).size());
+
+        env.removeUnit(lib.getPath());
+        Assertions.assertTrue(env.getReferenceIndex().getReferences(main).isEmpty());
+    }
+
+    @Test
+    void keepsUnitsNotMentioningReloadedClasses() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit declaration = load(env, "Foo.dzs", "zenClass Foo { static bar as int = 1; }");
+        CompilationUnit user = load(env, "User.zs", "print(scripts.Foo.bar);");
+        CompilationUnit other = load(env, "Other.zs", "print(1);");
+        env.getReferenceIndex().getReferences(user);
+        env.getReferenceIndex().getReferences(other);
+        long userVersion = user.getDependencyVersion();
+        long otherVersion = other.getDependencyVersion();
+
+        Compilations.load(declaration, "zenClass Foo { static bar as int = 2; }");
+        Assertions.assertNotEquals(userVersion, user.getDependencyVersion());
+        Assertions.assertEquals(otherVersion, other.getDependencyVersion());
+    }
+
+    private static CompilationUnit load(CompilationEnvironment env, String fileName, String source) {
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve(fileName));
+        Compilations.load(unit, source);
+        return unit;
+    }
+
+}
@@ -0,0 +1,61 @@
+package raylras.zen.model.resolve;
+
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.symbol.Symbol;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+class SymbolResolverTest {
+
+    @Test
+    void keepsLookupsWhileDependenciesAreUnchanged() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit lib = load(env, "Lib.zs", "global foo as int = 1;");
+        CompilationUnit main = load(env, "Main.zs", "print(foo);");
+        CompilationUnit other = load(env, "Other.zs", "var y = 2;");
+
+        Collection<Symbol> symbols = lookup(main, "foo");
+        Assertions.assertEquals(1, symbols.size());
+        Assertions.assertSame(symbols, lookup(main, "foo"));
+
+        Compilations.load(other, "var z = 3;");
+        Assertions.assertSame(symbols, lookup(main, "foo"));
+
+        Compilations.load(lib, "global foo as string = '';");
+        Collection<Symbol> reloaded = lookup(main, "foo");
+        Assertions.assertNotSame(symbols, reloaded);
+        Assertions.assertTrue(lib.getTopLevelSymbols().contains(reloaded.iterator().next()));
+    }
+
+    @Test
+    void resolvesAgainOnceNameIsDeclared() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit main = load(env, "Main.zs", "print(foo);");
+        CompilationUnit lib = load(env, "Lib.zs", "var bar = 1;");
+        Assertions.assertTrue(lookup(main, "foo").isEmpty());
+
+        Compilations.load(lib, "global foo as int = 1;");
+        Assertions.assertEquals(1, lookup(main, "foo").size());
+
+        Compilations.load(lib, "var bar = 1;");
+        Assertions.assertTrue(lookup(main, "foo").isEmpty());
+    }
+
+    private static CompilationUnit load(CompilationEnvironment env, String fileName, String source) {
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve(fileName));
+        Compilations.load(unit, source);
+        return unit;
+    }
+
+    private static Collection<Symbol> lookup(CompilationUnit unit, String name) {
+        TerminalNode node = unit.getOccurrenceTable().getTerminals(name).get(0);
+        return SymbolResolver.lookupSymbol(node, unit);
+    }
+
+}
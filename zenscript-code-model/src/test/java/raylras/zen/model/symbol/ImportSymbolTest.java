@@ -0,0 +1,53 @@
+package raylras.zen.model.symbol;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.Collection;
+
+class ImportSymbolTest {
+
+    @Test
+    void keepsTargetsWhileImportedUnitIsUnchanged() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit lib = env.createUnit(env.getRoot().resolve("Lib.zs"));
+        Compilations.load(lib, "function foo() {}");
+        CompilationUnit main = env.createUnit(env.getRoot().resolve("Main.zs"));
+        Compilations.load(main, "import scripts.Lib.foo;");
+        CompilationUnit other = env.createUnit(env.getRoot().resolve("Other.zs"));
+        Compilations.load(other, "var x = 1;");
+
+        ImportSymbol importSymbol = main.getImports().get(0);
+        Collection<Symbol> targets = importSymbol.getTargets();
+        Assertions.assertEquals(1, targets.size());
+
+        Compilations.load(other, "var y = 2;");
+        Assertions.assertSame(targets, importSymbol.getTargets());
+
+        Compilations.load(lib, "function foo() {}");
+        Collection<Symbol> reloaded = importSymbol.getTargets();
+        Assertions.assertNotSame(targets, reloaded);
+        Assertions.assertTrue(lib.getTopLevelSymbols().contains(reloaded.iterator().next()));
+    }
+
+    @Test
+    void resolvesOnceImportedUnitIsCreated() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit main = env.createUnit(env.getRoot().resolve("Main.zs"));
+        Compilations.load(main, "import scripts.Lib.foo;");
+        ImportSymbol importSymbol = main.getImports().get(0);
+        Assertions.assertTrue(importSymbol.getTargets().isEmpty());
+
+        CompilationUnit lib = env.createUnit(env.getRoot().resolve("Lib.zs"));
+        Compilations.load(lib, "function foo() {}");
+        Assertions.assertEquals(1, importSymbol.getTargets().size());
+
+        env.removeUnit(lib.getPath());
+        Assertions.assertTrue(importSymbol.getTargets().isEmpty());
+    }
+
+}
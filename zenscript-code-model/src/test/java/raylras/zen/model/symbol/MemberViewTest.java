@@ -0,0 +1,84 @@
+package raylras.zen.model.symbol;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.type.IntersectionType;
+import raylras.zen.model.type.Type;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class MemberViewTest {
+
+    static CompilationEnvironment env;
+    static ClassSymbol base;
+    static ClassSymbol derived;
+
+    @BeforeAll
+    static void beforeAll() {
+        Path root = Path.of("test-env", "scripts");
+        env = new CompilationEnvironment(root);
+        base = loadClass(root.resolve("IBase.dzs"), """
+                zenClass IBase {
+                    val id as int;
+                    function name() as string;
+                    function name(suffix as string) as string;
+                    operator as() as string;
+                }
+                """);
+        derived = loadClass(root.resolve("Derived.dzs"), """
+                zenClass Derived extends scripts.IBase {
+                    val id as long;
+                    function name() as string;
+                    operator as() as int;
+                }
+                """);
+    }
+
+    @Test
+    void dropsOverriddenInterfaceMembers() {
+        MemberView view = MemberView.of(derived.getType(), env);
+        List<Executable> overloads = view.findAll("name", Executable.class);
+        Assertions.assertEquals(2, overloads.size());
+        Assertions.assertTrue(derived.getDeclaredMembers().contains((Symbol) overloads.get(0)));
+        Assertions.assertTrue(base.getDeclaredMembers().contains((Symbol) overloads.get(1)));
+
+        Symbol id = view.findFirst("id").orElseThrow();
+        Assertions.assertTrue(derived.getDeclaredMembers().contains(id));
+        Assertions.assertEquals(1, view.findAll("id", Symbol.class).size());
+    }
+
+    @Test
+    void mergesCasters() {
+        List<OperatorFunctionSymbol> casters = MemberView.of(derived.getType(), env)
+                .findAll(OperatorFunctionSymbol.class, operator -> operator.getOperator() == Operator.AS);
+        Assertions.assertEquals(1, casters.size());
+        Type returnType = casters.get(0).getReturnType();
+        Assertions.assertInstanceOf(IntersectionType.class, returnType);
+    }
+
+    @Test
+    void visitsEveryMember() {
+        int[] count = new int[1];
+        MemberView.of(derived.getType(), env).visit(member -> {
+            count[0]++;
+            return true;
+        });
+        Assertions.assertEquals(7, count[0]);
+    }
+
+    private static ClassSymbol loadClass(Path path, String source) {
+        CompilationUnit unit = env.createUnit(path);
+        Compilations.load(unit, source);
+        return unit.getTopLevelSymbols().stream()
+                .filter(ClassSymbol.class::isInstance)
+                .map(ClassSymbol.class::cast)
+                .findFirst()
+                .orElseThrow();
+    }
+
+}
@@ -0,0 +1,63 @@
+package raylras.zen.model.type;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+class TypeFactoryTest {
+
+    @Test
+    void returnsOneInstancePerStructure() {
+        MapType map = TypeFactory.map(StringType.INSTANCE, TypeFactory.array(IntType.INSTANCE));
+        Assertions.assertSame(map, TypeFactory.map(StringType.INSTANCE, TypeFactory.array(IntType.INSTANCE)));
+        Assertions.assertNotSame(map, TypeFactory.map(StringType.INSTANCE, TypeFactory.list(IntType.INSTANCE)));
+        Assertions.assertNotEquals((Type) TypeFactory.mapEntry(StringType.INSTANCE, IntType.INSTANCE), TypeFactory.map(StringType.INSTANCE, IntType.INSTANCE));
+
+        FunctionType function = TypeFactory.function(VoidType.INSTANCE, new ArrayList<>(List.of(IntType.INSTANCE)));
+        Assertions.assertSame(function, TypeFactory.function(VoidType.INSTANCE, IntType.INSTANCE));
+        Assertions.assertEquals(function.hashCode(), TypeFactory.function(VoidType.INSTANCE, IntType.INSTANCE).hashCode());
+    }
+
+    @Test
+    void strayInstancesEqualCanonicalOnes() {
+        ListType stray = new ListType(TypeFactory.array(IntType.INSTANCE));
+        ListType canonical = TypeFactory.list(TypeFactory.array(IntType.INSTANCE));
+        Assertions.assertNotSame(canonical, stray);
+        Assertions.assertEquals(canonical, stray);
+        Assertions.assertEquals(canonical.hashCode(), stray.hashCode());
+        Assertions.assertEquals(TypeFactory.function(VoidType.INSTANCE, stray), new FunctionType(VoidType.INSTANCE, canonical));
+        Assertions.assertNotEquals((Type) new ListType(IntType.INSTANCE), TypeFactory.array(IntType.INSTANCE));
+    }
+
+    @Test
+    void acceptsUnresolvedComponents() {
+        Assertions.assertSame(TypeFactory.array(null), TypeFactory.array(null));
+        Assertions.assertSame(TypeFactory.intersection(Arrays.asList(null, IntType.INSTANCE)), TypeFactory.intersection(Arrays.asList(null, IntType.INSTANCE)));
+    }
+
+    @Test
+    void internsConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ListType>> futures = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return TypeFactory.list(TypeFactory.array(DoubleType.INSTANCE));
+                }));
+            }
+            start.countDown();
+            Set<ListType> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Future<ListType> future : futures) {
+                instances.add(future.get(10, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, instances.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package raylras.zen.model.type;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.symbol.ClassSymbol;
+
+import java.nio.file.Path;
+
+class TypesTest {
+
+    @Test
+    void cachesResultsUntilTheEnvironmentChanges() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        Type base = load(env, "Base.dzs", "zenClass Base {}");
+        Type derived = load(env, "Derived.dzs", "zenClass Derived extends scripts.Base {}");
+
+        Assertions.assertEquals(SubtypeResult.INHERIT, Types.test(derived, base, env));
+        Assertions.assertEquals(SubtypeResult.MISMATCH, Types.test(base, derived, env));
+        Assertions.assertEquals(0, env.getSubtypeCache().getStats().hits());
+        Assertions.assertEquals(2, env.getSubtypeCache().getStats().misses());
+
+        Assertions.assertEquals(SubtypeResult.INHERIT, Types.test(derived, base, env));
+        Assertions.assertEquals(1, env.getSubtypeCache().getStats().hits());
+
+        // identical types never reach the cache
+        Assertions.assertEquals(SubtypeResult.SELF, Types.test(base, base, env));
+        Assertions.assertEquals(1, env.getSubtypeCache().getStats().hits());
+        Assertions.assertEquals(2, env.getSubtypeCache().getStats().misses());
+
+        env.createUnit(env.getRoot().resolve("Other.zs"));
+        Assertions.assertEquals(SubtypeResult.INHERIT, Types.test(derived, base, env));
+        Assertions.assertEquals(1, env.getSubtypeCache().getStats().hits());
+        Assertions.assertEquals(3, env.getSubtypeCache().getStats().misses());
+    }
+
+    private static Type load(CompilationEnvironment env, String fileName, String source) {
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve(fileName));
+        Compilations.load(unit, source);
+        return ((ClassSymbol) unit.getTopLevelSymbols().iterator().next()).getType();
+    }
+
+}
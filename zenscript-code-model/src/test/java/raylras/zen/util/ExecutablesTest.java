@@ -0,0 +1,69 @@
+package raylras.zen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.symbol.ClassSymbol;
+import raylras.zen.model.symbol.Executable;
+import raylras.zen.model.type.IntType;
+import raylras.zen.model.type.StringType;
+import raylras.zen.model.type.Type;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class ExecutablesTest {
+
+    @Test
+    void cachesBestMatchPerCallSite() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Overloads.dzs"));
+        Compilations.load(unit, """
+                zenClass Overloads {
+                    function f(value as int) as int;
+                    function f(value as string) as string;
+                }
+                """);
+        Type owner = getClass(unit).getType();
+
+        Executable intMatch = Executables.findBestMatch(owner, "f", List.of(IntType.INSTANCE), env).orElseThrow();
+        Assertions.assertEquals(IntType.INSTANCE, intMatch.getReturnType());
+        Executable stringMatch = Executables.findBestMatch(owner, "f", List.of(StringType.INSTANCE), env).orElseThrow();
+        Assertions.assertEquals(StringType.INSTANCE, stringMatch.getReturnType());
+        Assertions.assertSame(intMatch, Executables.findBestMatch(owner, "f", List.of(IntType.INSTANCE), env).orElseThrow());
+        Assertions.assertEquals(1, env.getOverloadResolutionCache().getBestMatchStats().hits());
+        Assertions.assertEquals(1, env.getOverloadResolutionCache().getOverloadStats().misses());
+    }
+
+    @Test
+    void resolvesAgainAfterReload() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Overloads.dzs"));
+        Compilations.load(unit, """
+                zenClass Overloads {
+                    function f(value as int) as int;
+                }
+                """);
+        Executable before = Executables.findBestMatch(getClass(unit).getType(), "f", List.of(IntType.INSTANCE), env).orElseThrow();
+
+        Compilations.load(unit, """
+                zenClass Overloads {
+                    function f(value as int) as string;
+                }
+                """);
+        Executable after = Executables.findBestMatch(getClass(unit).getType(), "f", List.of(IntType.INSTANCE), env).orElseThrow();
+        Assertions.assertNotSame(before, after);
+        Assertions.assertEquals(StringType.INSTANCE, after.getReturnType());
+    }
+
+    private static ClassSymbol getClass(CompilationUnit unit) {
+        return unit.getTopLevelSymbols().stream()
+                .filter(ClassSymbol.class::isInstance)
+                .map(ClassSymbol.class::cast)
+                .findFirst()
+                .orElseThrow();
+    }
+
+}
@@ -0,0 +1,38 @@
+package raylras.zen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ExpiringCacheTest {
+
+    @Test
+    void expiresAfterTimeToLive() {
+        AtomicLong nanos = new AtomicLong();
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(16, nanos::get);
+        cache.put("a", 1, Duration.ofSeconds(10));
+        cache.put("b", 2, Duration.ofSeconds(30));
+        cache.put("c", 3, Duration.ZERO);
+        nanos.addAndGet(Duration.ofSeconds(20).toNanos());
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals(2, cache.get("b"));
+        Assertions.assertNull(cache.get("c"));
+        Assertions.assertEquals(new CacheStats(1, 2, 1, 1), cache.getStats());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(2, () -> 0);
+        cache.put("a", 1, Duration.ofSeconds(10));
+        cache.put("b", 2, Duration.ofSeconds(10));
+        cache.get("a");
+        cache.put("c", 3, Duration.ofSeconds(10));
+        Assertions.assertEquals(1, cache.get("a"));
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals(3, cache.get("c"));
+        Assertions.assertEquals(1, cache.getStats().evictions());
+    }
+
+}
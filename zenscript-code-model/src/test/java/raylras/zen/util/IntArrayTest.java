@@ -0,0 +1,20 @@
+package raylras.zen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class IntArrayTest {
+
+    @Test
+    void growsFromAnEmptyWrappedArray() {
+        IntArray array = IntArray.wrap(new int[0]);
+        for (int i = 0; i < 10; i++) {
+            array.add(i);
+        }
+        Assertions.assertEquals(10, array.size());
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), array.asList());
+    }
+
+}
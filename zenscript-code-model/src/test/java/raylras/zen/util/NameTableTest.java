@@ -0,0 +1,74 @@
+package raylras.zen.util;
+
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.OccurrenceTable;
+import raylras.zen.model.symbol.MemberView;
+import raylras.zen.model.symbol.Symbol;
+import raylras.zen.model.type.IntType;
+import raylras.zen.model.type.TypeFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class NameTableTest {
+
+    @Test
+    void internsEqualNamesToOneInstance() {
+        NameTable table = new NameTable();
+        String first = table.intern(new String("foo"));
+        String second = table.intern(new String("foo"));
+        Assertions.assertSame(first, second);
+        Assertions.assertSame("length", table.intern(new String("length")));
+        // lookups retain nothing
+        Assertions.assertEquals(new NameTable.Stats(0, 0), table.getStats());
+    }
+
+    @Test
+    void countsOnlyDeclaredNames() {
+        NameTable table = new NameTable();
+        // not a literal, so the first declaration is the one retained
+        String name = "declared" + Long.toHexString(System.nanoTime());
+        Assertions.assertSame(name, table.declare(name));
+        Assertions.assertEquals(new NameTable.Stats(1, 0), table.getStats());
+        Assertions.assertSame(name, table.declare(new String(name)));
+        Assertions.assertEquals(2, table.getStats().declarations());
+        long savedBytes = table.getStats().savedBytes();
+        Assertions.assertTrue(savedBytes > 0);
+        table.intern(new String(name));
+        Assertions.assertEquals(savedBytes, table.getStats().savedBytes());
+    }
+
+    @Test
+    void namesOfTokensAreTakenFromTheOccurrenceTable() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("TokenAtoms.zs"));
+        Compilations.load(unit, "var foo = 1;\nprint(foo);\n");
+        OccurrenceTable occurrenceTable = unit.getOccurrenceTable();
+        List<TerminalNode> terminals = occurrenceTable.getTerminals("foo");
+        Assertions.assertEquals(2, terminals.size());
+        Assertions.assertSame(unit.getTopLevelSymbols().get(0).getName(), occurrenceTable.getAtom(terminals.get(1)));
+        Assertions.assertSame(occurrenceTable.getAtom(terminals.get(0)), occurrenceTable.getAtom(terminals.get(1)));
+    }
+
+    @Test
+    void symbolNamesAreAtoms() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Atoms.zs"));
+        Compilations.load(unit, """
+                var foo = 1;
+                """);
+        NameTable table = env.getNameTable();
+        Symbol foo = unit.getTopLevelSymbols().get(0);
+        Assertions.assertSame(table.intern(new String("foo")), foo.getName());
+        Assertions.assertSame(table.intern(new String("Atoms")), unit.getSimpleName());
+
+        Symbol length = MemberView.of(TypeFactory.array(IntType.INSTANCE), env).findFirst(new String("length")).orElseThrow();
+        Assertions.assertSame(table.intern(new String("length")), length.getName());
+    }
+
+}
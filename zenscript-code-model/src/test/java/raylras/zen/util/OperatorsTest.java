@@ -0,0 +1,78 @@
+package raylras.zen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.symbol.ClassSymbol;
+import raylras.zen.model.symbol.Operator;
+import raylras.zen.model.type.BoolType;
+import raylras.zen.model.type.IntType;
+import raylras.zen.model.type.StringType;
+import raylras.zen.model.type.Type;
+
+import java.nio.file.Path;
+
+class OperatorsTest {
+
+    @Test
+    void dispatchesBinaryOperatorByOperandType() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Vector.dzs"));
+        Compilations.load(unit, """
+                zenClass Vector {
+                    operator +(other as int) as int;
+                    operator +(other as string) as string;
+                    operator -() as bool;
+                }
+                """);
+        Type vector = getClass(unit).getType();
+
+        Assertions.assertEquals(IntType.INSTANCE, Operators.getBinaryResult(vector, Operator.ADD, env, IntType.INSTANCE).orElseThrow());
+        Assertions.assertEquals(StringType.INSTANCE, Operators.getBinaryResult(vector, Operator.ADD, env, StringType.INSTANCE).orElseThrow());
+        Assertions.assertEquals(BoolType.INSTANCE, Operators.getUnaryResult(vector, Operator.NEG, env).orElseThrow());
+        Assertions.assertTrue(Operators.getUnaryResult(vector, Operator.NOT, env).isEmpty());
+        Assertions.assertSame(env.getOperatorTable(vector), env.getOperatorTable(vector));
+    }
+
+    @Test
+    void sharesTablesOfBuiltinTypes() {
+        CompilationEnvironment env1 = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationEnvironment env2 = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        Assertions.assertEquals(StringType.INSTANCE, Operators.getBinaryResult(StringType.INSTANCE, Operator.CONCAT, env1, StringType.INSTANCE).orElseThrow());
+        Assertions.assertSame(
+                env1.getOperatorTable(IntType.INSTANCE).get(Operator.ADD),
+                env2.getOperatorTable(IntType.INSTANCE).get(Operator.ADD));
+    }
+
+    @Test
+    void rebuildsTableAfterReload() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Vector.dzs"));
+        Compilations.load(unit, """
+                zenClass Vector {
+                    operator +(other as int) as int;
+                }
+                """);
+        Type before = getClass(unit).getType();
+        Assertions.assertEquals(IntType.INSTANCE, Operators.getBinaryResult(before, Operator.ADD, env, IntType.INSTANCE).orElseThrow());
+
+        Compilations.load(unit, """
+                zenClass Vector {
+                    operator +(other as int) as string;
+                }
+                """);
+        Type after = getClass(unit).getType();
+        Assertions.assertEquals(StringType.INSTANCE, Operators.getBinaryResult(after, Operator.ADD, env, IntType.INSTANCE).orElseThrow());
+    }
+
+    private static ClassSymbol getClass(CompilationUnit unit) {
+        return unit.getTopLevelSymbols().stream()
+                .filter(ClassSymbol.class::isInstance)
+                .map(ClassSymbol.class::cast)
+                .findFirst()
+                .orElseThrow();
+    }
+
+}
@@ -0,0 +1,33 @@
+package raylras.zen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+class PackageTreeTest {
+
+    @Test
+    void completesByDottedPrefix() {
+        PackageTree<String> tree = new PackageTree<>(".");
+        tree.put("crafttweaker.item.IItemStack", "IItemStack");
+        tree.put("crafttweaker.item.IIngredient", "IIngredient");
+        tree.put("crafttweaker.liquid.ILiquidStack", "ILiquidStack");
+        Assertions.assertEquals(Set.of("crafttweaker"), tree.complete("craft").keySet());
+        Assertions.assertEquals(Set.of("item", "liquid"), tree.complete("crafttweaker.").keySet());
+        Assertions.assertEquals(Set.of("IItemStack", "IIngredient"), tree.complete("crafttweaker.item.II").keySet());
+        Assertions.assertEquals("IItemStack", tree.get("crafttweaker.item.IItemStack").getElement());
+    }
+
+    @Test
+    void removesEmptyNodes() {
+        PackageTree<String> tree = new PackageTree<>(".");
+        tree.put("crafttweaker.item.IItemStack", "IItemStack");
+        tree.put("crafttweaker.liquid.ILiquidStack", "ILiquidStack");
+        tree.remove("crafttweaker.item.IItemStack");
+        Assertions.assertEquals(Set.of("liquid"), tree.complete("crafttweaker.").keySet());
+        tree.remove("crafttweaker.liquid.ILiquidStack");
+        Assertions.assertTrue(tree.isEmpty());
+    }
+
+}
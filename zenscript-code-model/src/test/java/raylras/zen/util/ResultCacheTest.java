@@ -0,0 +1,51 @@
+package raylras.zen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class ResultCacheTest {
+
+    private static final ResultCache.Key<String> KEY = new ResultCache.Key<>("test");
+
+    @Test
+    void recomputesOnVersionChange() {
+        AtomicLong version = new AtomicLong();
+        ResultCache cache = new ResultCache(version::get);
+        Assertions.assertEquals("a", cache.computeIfAbsent(KEY, () -> "a"));
+        Assertions.assertEquals("a", cache.computeIfAbsent(KEY, () -> "b"));
+        version.incrementAndGet();
+        Assertions.assertEquals("b", cache.computeIfAbsent(KEY, () -> "b"));
+        Assertions.assertEquals(new CacheStats(1, 2, 0, 1), cache.getStats());
+    }
+
+    @Test
+    void recomputesInvalidResult() {
+        ResultCache cache = new ResultCache(() -> 0);
+        cache.computeIfAbsent(KEY, () -> "a");
+        Assertions.assertEquals("b", cache.computeIfAbsent(KEY, "b"::equals, () -> "b"));
+        Assertions.assertEquals("b", cache.computeIfAbsent(KEY, "b"::equals, () -> "c"));
+    }
+
+    @Test
+    void keepsLatestResultUntilReplaced() {
+        AtomicLong version = new AtomicLong();
+        ResultCache cache = new ResultCache(version::get);
+        cache.computeIfAbsent(KEY, () -> "a");
+        version.incrementAndGet();
+        Assertions.assertEquals("a", cache.getLatest(KEY).orElseThrow());
+    }
+
+    @Test
+    void discardsResultComputedAgainstOutdatedVersion() {
+        AtomicLong version = new AtomicLong();
+        ResultCache cache = new ResultCache(version::get);
+        cache.computeIfAbsent(KEY, () -> {
+            version.incrementAndGet();
+            return "a";
+        });
+        Assertions.assertTrue(cache.getLatest(KEY).isEmpty());
+    }
+
+}
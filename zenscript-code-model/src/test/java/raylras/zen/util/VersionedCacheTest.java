@@ -0,0 +1,56 @@
+package raylras.zen.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class VersionedCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+        Assertions.assertEquals(1, cache.get("a"));
+        Assertions.assertNull(cache.get("b"));
+        Assertions.assertEquals(3, cache.get("c"));
+        Assertions.assertEquals(1, cache.getStats().evictions());
+    }
+
+    @Test
+    void invalidatesOnVersionChange() {
+        AtomicLong version = new AtomicLong();
+        VersionedCache<String, Integer> cache = new VersionedCache<>(16, version::get);
+        Assertions.assertEquals(1, cache.computeIfAbsent("a", key -> 1));
+        Assertions.assertEquals(1, cache.computeIfAbsent("a", key -> 2));
+        version.incrementAndGet();
+        Assertions.assertEquals(2, cache.computeIfAbsent("a", key -> 2));
+    }
+
+    @Test
+    void discardsValueComputedAgainstOutdatedVersion() {
+        AtomicLong version = new AtomicLong();
+        VersionedCache<String, Integer> cache = new VersionedCache<>(16, version::get);
+        cache.computeIfAbsent("a", key -> {
+            version.incrementAndGet();
+            return 1;
+        });
+        Assertions.assertNull(cache.get("a"));
+    }
+
+    @Test
+    void reloadsValueOnVersionChange() {
+        AtomicLong version = new AtomicLong();
+        AtomicLong loads = new AtomicLong();
+        VersionedValue<Long> value = new VersionedValue<>(version::get, loads::incrementAndGet);
+        Assertions.assertEquals(1, value.get());
+        Assertions.assertEquals(1, value.get());
+        version.incrementAndGet();
+        Assertions.assertEquals(2, value.get());
+        Assertions.assertEquals(2, value.get());
+    }
+
+}
@@ -16,8 +16,10 @@ import raylras.zen.util.PathUtil;
 import raylras.zen.util.l10n.L10N;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
@@ -77,9 +79,20 @@ public class WorkspaceManager implements LanguageClientAware {
         workspaceSet.add(new Workspace(workspacePath));
     }
 
-    public void removeWorkspace(WorkspaceFolder folder) {
+    /**
+     * @return the environments of the removed workspace
+     */
+    public List<CompilationEnvironment> removeWorkspace(WorkspaceFolder folder) {
         Path workspacePath = PathUtil.toPath(folder.getUri());
-        workspaceSet.removeIf(workspace -> workspace.path().equals(workspacePath));
+        List<CompilationEnvironment> removed = new ArrayList<>();
+        workspaceSet.removeIf(workspace -> {
+            if (workspace.path().equals(workspacePath)) {
+                workspace.forEach(removed::add);
+                return true;
+            }
+            return false;
+        });
+        return removed;
     }
 
     public void createEnvIfNotExists(Path documentPath) {
@@ -96,6 +109,7 @@ public class WorkspaceManager implements LanguageClientAware {
                     Path compilationRoot = PathUtil.findUpwardsOrSelf(documentPath, CompilationEnvironment.DEFAULT_ROOT_DIRECTORY);
                     CompilationEnvironment env = new CompilationEnvironment(compilationRoot);
                     Compilations.load(env);
+                    logger.info("Loaded {}, identifier table: {}", env, env.getNameTable().getStats());
                     workspace.add(env);
                     checkDzs(env);
                 },
@@ -6,12 +6,14 @@ import org.eclipse.lsp4j.services.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import raylras.zen.bracket.RpcClient;
+import raylras.zen.lsp.provider.CompletionProvider;
 import raylras.zen.model.CompilationUnit;
 import raylras.zen.util.l10n.L10N;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -38,23 +40,31 @@ public class ZenLanguageServer implements LanguageServer, LanguageClientAware {
     public CompletableFuture<InitializeResult> initialize(InitializeParams params) {
         service.initializeWorkspaces(params.getWorkspaceFolders());
         L10N.setLocale(params.getLocale());
+        CompletionProvider.setClientCapabilities(Optional.ofNullable(params.getCapabilities())
+                .map(ClientCapabilities::getTextDocument)
+                .map(TextDocumentClientCapabilities::getCompletion)
+                .orElse(null));
 
         ServerCapabilities capabilities = new ServerCapabilities();
         capabilities.setTextDocumentSync(TextDocumentSyncKind.Full);
         capabilities.setCompletionProvider(new CompletionOptions(true, List.of(".", "<")));
         capabilities.setDocumentSymbolProvider(true);
         // capabilities.setWorkspaceSymbolProvider(true);
-        // capabilities.setDocumentHighlightProvider(true);
-        // SignatureHelpOptions signatureHelpOptions = new SignatureHelpOptions();
-        // signatureHelpOptions.setTriggerCharacters(Arrays.asList("(", ","));
-        // capabilities.setSignatureHelpProvider(signatureHelpOptions);
-        // capabilities.setSemanticTokensProvider(new SemanticTokensWithRegistrationOptions(Semantics.SEMANTIC_TOKENS_LEGEND, true));
+        capabilities.setDocumentHighlightProvider(true);
+        SignatureHelpOptions signatureHelpOptions = new SignatureHelpOptions();
+        signatureHelpOptions.setTriggerCharacters(List.of("(", ","));
+        capabilities.setSignatureHelpProvider(signatureHelpOptions);
+        SemanticTokensWithRegistrationOptions semanticTokensOptions = new SemanticTokensWithRegistrationOptions(Semantics.SEMANTIC_TOKENS_LEGEND);
+        semanticTokensOptions.setFull(Either.forRight(new SemanticTokensServerFull(true)));
+        semanticTokensOptions.setRange(Either.forLeft(true));
+        capabilities.setSemanticTokensProvider(semanticTokensOptions);
         capabilities.setReferencesProvider(true);
         // capabilities.setDeclarationProvider(true);
         capabilities.setDefinitionProvider(true);
         // capabilities.setTypeDefinitionProvider(true);
         capabilities.setHoverProvider(true);
-        // capabilities.setRenameProvider(true);
+        capabilities.setRenameProvider(Either.forRight(new RenameOptions(true)));
+        capabilities.setCodeActionProvider(Either.forRight(new CodeActionOptions(List.of(CodeActionKind.QuickFix))));
         return CompletableFuture.completedFuture(new InitializeResult(capabilities));
     }
 
@@ -2,6 +2,7 @@ package raylras.zen.lsp;
 
 import org.eclipse.lsp4j.*;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.Either3;
 import org.eclipse.lsp4j.services.TextDocumentService;
 import org.eclipse.lsp4j.services.WorkspaceService;
 import org.slf4j.Logger;
@@ -16,6 +17,7 @@ import raylras.zen.util.Watcher;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class ZenLanguageService implements TextDocumentService, WorkspaceService {
 
@@ -96,7 +98,18 @@ public class ZenLanguageService implements TextDocumentService, WorkspaceService
 
     @Override
     public CompletableFuture<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
-        return emptyFuture();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                var watcher = Watcher.watch(() -> CompletionProvider.resolveCompletionItem(unresolved));
+                if (watcher.isResultPresent()) {
+                    logger.trace("resolveCompletionItem {} [{}]", unresolved.getLabel(), watcher.getElapsedMillis());
+                }
+                return watcher.getResult().orElse(unresolved);
+            });
+        } catch (Exception e) {
+            logger.error("resolveCompletionItem {}", unresolved, e);
+            return CompletableFuture.completedFuture(unresolved);
+        }
     }
 
     @Override
@@ -110,7 +123,7 @@ public class ZenLanguageService implements TextDocumentService, WorkspaceService
                     logger.info("hover {} at ({},{}) [{}]", unit.getPath().getFileName(), line, column, watcher.getElapsedMillis());
                 }
                 return watcher.getResult();
-            }).orElse(null));
+            }).orElseGet(this::emptyFuture)).thenCompose(Function.identity());
         } catch (Exception e) {
             logger.error("hover {}", params, e);
             return emptyFuture();
@@ -185,6 +198,128 @@ public class ZenLanguageService implements TextDocumentService, WorkspaceService
         }
     }
 
+    @Override
+    public CompletableFuture<Either<SemanticTokens, SemanticTokensDelta>> semanticTokensFullDelta(SemanticTokensDeltaParams params) {
+        try (Document doc = manager.openAsRead(params.getTextDocument())) {
+            return CompletableFuture.supplyAsync(() -> doc.getUnit().flatMap(unit -> {
+                var watcher = Watcher.watch(() -> SemanticTokensProvider.semanticTokensFullDelta(unit, params));
+                if (watcher.isResultPresent()) {
+                    logger.info("semanticTokensFullDelta {} [{}]", unit.getPath().getFileName(), watcher.getElapsedMillis());
+                }
+                return watcher.getResult();
+            }).orElse(null));
+        } catch (Exception e) {
+            logger.error("semanticTokensFullDelta {}", params, e);
+            return emptyFuture();
+        }
+    }
+
+    @Override
+    public CompletableFuture<SemanticTokens> semanticTokensRange(SemanticTokensRangeParams params) {
+        try (Document doc = manager.openAsRead(params.getTextDocument())) {
+            return CompletableFuture.supplyAsync(() -> doc.getUnit().flatMap(unit -> {
+                var watcher = Watcher.watch(() -> SemanticTokensProvider.semanticTokensRange(unit, params));
+                if (watcher.isResultPresent()) {
+                    logger.info("semanticTokensRange {} [{}]", unit.getPath().getFileName(), watcher.getElapsedMillis());
+                }
+                return watcher.getResult();
+            }).orElse(null));
+        } catch (Exception e) {
+            logger.error("semanticTokensRange {}", params, e);
+            return emptyFuture();
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Either<Command, CodeAction>>> codeAction(CodeActionParams params) {
+        try (Document doc = manager.openAsRead(params.getTextDocument())) {
+            return CompletableFuture.supplyAsync(() -> doc.getUnit().flatMap(unit -> {
+                var watcher = Watcher.watch(() -> CodeActionProvider.codeAction(unit, params));
+                if (watcher.isResultPresent()) {
+                    int line = params.getRange().getStart().getLine() + 1;
+                    int column = params.getRange().getStart().getCharacter();
+                    logger.info("codeAction {} at ({},{}) [{}]", unit.getPath().getFileName(), line, column, watcher.getElapsedMillis());
+                }
+                return watcher.getResult();
+            }).orElse(null));
+        } catch (Exception e) {
+            logger.error("codeAction {}", params, e);
+            return emptyFuture();
+        }
+    }
+
+    @Override
+    public CompletableFuture<SignatureHelp> signatureHelp(SignatureHelpParams params) {
+        try (Document doc = manager.openAsRead(params.getTextDocument())) {
+            return CompletableFuture.supplyAsync(() -> doc.getUnit().flatMap(unit -> {
+                var watcher = Watcher.watch(() -> SignatureHelpProvider.signatureHelp(unit, params));
+                if (watcher.isResultPresent()) {
+                    int line = params.getPosition().getLine() + 1;
+                    int column = params.getPosition().getCharacter();
+                    logger.info("signatureHelp {} at ({},{}) [{}]", unit.getPath().getFileName(), line, column, watcher.getElapsedMillis());
+                }
+                return watcher.getResult();
+            }).orElse(null));
+        } catch (Exception e) {
+            logger.error("signatureHelp {}", params, e);
+            return emptyFuture();
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<? extends DocumentHighlight>> documentHighlight(DocumentHighlightParams params) {
+        try (Document doc = manager.openAsRead(params.getTextDocument())) {
+            return CompletableFuture.supplyAsync(() -> doc.getUnit().flatMap(unit -> {
+                var watcher = Watcher.watch(() -> DocumentHighlightProvider.documentHighlight(unit, params));
+                if (watcher.isResultPresent()) {
+                    int line = params.getPosition().getLine() + 1;
+                    int column = params.getPosition().getCharacter();
+                    logger.trace("documentHighlight {} at ({},{}) [{}]", unit.getPath().getFileName(), line, column, watcher.getElapsedMillis());
+                }
+                return watcher.getResult();
+            }).orElse(null));
+        } catch (Exception e) {
+            logger.error("documentHighlight {}", params, e);
+            return emptyFuture();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Either3<Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> prepareRename(PrepareRenameParams params) {
+        try (Document doc = manager.openAsRead(params.getTextDocument())) {
+            return CompletableFuture.supplyAsync(() -> doc.getUnit().flatMap(unit -> {
+                var watcher = Watcher.watch(() -> RenameProvider.prepareRename(unit, params));
+                if (watcher.isResultPresent()) {
+                    int line = params.getPosition().getLine() + 1;
+                    int column = params.getPosition().getCharacter();
+                    logger.info("prepareRename {} at ({},{}) [{}]", unit.getPath().getFileName(), line, column, watcher.getElapsedMillis());
+                }
+                return watcher.getResult();
+            }).orElse(null));
+        } catch (Exception e) {
+            logger.error("prepareRename {}", params, e);
+            return emptyFuture();
+        }
+    }
+
+    @Override
+    public CompletableFuture<WorkspaceEdit> rename(RenameParams params) {
+        try (Document doc = manager.openAsRead(params.getTextDocument())) {
+            return CompletableFuture.supplyAsync(() -> doc.getUnit().flatMap(unit -> {
+                var watcher = Watcher.watch(() -> RenameProvider.rename(unit, params));
+                if (watcher.isResultPresent()) {
+                    int line = params.getPosition().getLine() + 1;
+                    int column = params.getPosition().getCharacter();
+                    logger.info("rename {} at ({},{}) [{}]", unit.getPath().getFileName(), line, column, watcher.getElapsedMillis());
+                }
+                return watcher.getResult();
+            }).orElse(null));
+        } catch (Exception e) {
+            logger.error("rename {}", params, e);
+            return emptyFuture();
+        }
+    }
+
     /* End Text Document Service */
 
     /* Workspace Service */
@@ -226,7 +361,7 @@ public class ZenLanguageService implements TextDocumentService, WorkspaceService
     @Override
     public void didChangeWorkspaceFolders(DidChangeWorkspaceFoldersParams params) {
         params.getEvent().getRemoved().forEach(workspace -> {
-            manager.removeWorkspace(workspace);
+            manager.removeWorkspace(workspace).forEach(CompletionProvider::release);
             logger.info("Removed Workspace folder: {}", workspace);
         });
         params.getEvent().getAdded().forEach(workspace -> {
@@ -0,0 +1,162 @@
+package raylras.zen.lsp.provider;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.eclipse.lsp4j.*;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.parser.ZenScriptLexer;
+import raylras.zen.model.parser.ZenScriptParser.ClassTypeContext;
+import raylras.zen.model.parser.ZenScriptParser.CompilationUnitContext;
+import raylras.zen.model.parser.ZenScriptParser.ImportDeclarationContext;
+import raylras.zen.model.parser.ZenScriptParser.SimpleNameExprContext;
+import raylras.zen.model.parser.ZenScriptParser.TopLevelElementContext;
+import raylras.zen.model.resolve.SymbolResolver;
+import raylras.zen.model.symbol.ClassSymbol;
+import raylras.zen.util.Range;
+import raylras.zen.util.l10n.L10N;
+
+import java.util.*;
+
+public final class CodeActionProvider {
+
+    private CodeActionProvider() {}
+
+    /**
+     * Suggests an import for every unresolved simple name in the requested range or in the ranges of
+     * the diagnostics sent along that names a class of the environment, plus a single action importing
+     * the classes of all such names that have a unique candidate.
+     * Only the parts of the document overlapping these ranges are visited.
+     */
+    public static Optional<List<Either<Command, CodeAction>>> codeAction(CompilationUnit unit, CodeActionParams params) {
+        if (unit.isGenerated() || !isRequested(CodeActionKind.QuickFix, params.getContext())) {
+            return Optional.empty();
+        }
+        List<Range> ranges = new ArrayList<>();
+        ranges.add(Range.of(params.getRange()));
+        if (params.getContext() != null && params.getContext().getDiagnostics() != null) {
+            for (Diagnostic diagnostic : params.getContext().getDiagnostics()) {
+                ranges.add(Range.of(diagnostic.getRange()));
+            }
+        }
+        Map<String, List<ClassSymbol>> candidates = new LinkedHashMap<>();
+        collectUnresolvedNames(unit, unit.getParseTree(), ranges, candidates);
+        candidates.values().removeIf(List::isEmpty);
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String uri = params.getTextDocument().getUri();
+        Position insertPosition = getImportInsertPosition(unit);
+        List<Either<Command, CodeAction>> actions = new ArrayList<>();
+        Set<String> imported = new LinkedHashSet<>();
+        candidates.forEach((simpleName, classes) -> {
+            for (ClassSymbol classSymbol : classes) {
+                String qualifiedName = classSymbol.getQualifiedName();
+                CodeAction action = createImportAction(String.format(L10N.getString("code_action.import"), qualifiedName), uri, insertPosition, List.of(qualifiedName));
+                action.setIsPreferred(classes.size() == 1);
+                actions.add(Either.forRight(action));
+            }
+            if (classes.size() == 1) {
+                imported.add(classes.get(0).getQualifiedName());
+            }
+        });
+        if (imported.size() > 1) {
+            actions.add(Either.forRight(createImportAction(L10N.getString("code_action.import_all"), uri, insertPosition, imported)));
+        }
+        return Optional.of(actions);
+    }
+
+    /**
+     * Code action kinds are hierarchical, {@code only} also asks for the kinds below the listed ones.
+     */
+    private static boolean isRequested(String kind, CodeActionContext context) {
+        if (context == null || context.getOnly() == null || context.getOnly().isEmpty()) {
+            return true;
+        }
+        for (String only : context.getOnly()) {
+            if (kind.equals(only) || kind.startsWith(only + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void collectUnresolvedNames(CompilationUnit unit, ParseTree cst, List<Range> ranges, Map<String, List<ClassSymbol>> candidates) {
+        if (cst instanceof ImportDeclarationContext || !isInRange(cst, ranges)) {
+            return;
+        }
+        if (cst instanceof ClassTypeContext ctx) {
+            if (ctx.qualifiedName().simpleName().size() == 1 && SymbolResolver.lookupClass(ctx.qualifiedName(), unit).isEmpty()) {
+                addCandidates(unit, ctx.qualifiedName().getText(), candidates);
+            }
+            return;
+        }
+        if (cst instanceof SimpleNameExprContext ctx) {
+            if (SymbolResolver.lookupSymbol(ctx, unit).isEmpty()) {
+                addCandidates(unit, ctx.simpleName().getText(), candidates);
+            }
+            return;
+        }
+        for (int i = 0; i < cst.getChildCount(); i++) {
+            collectUnresolvedNames(unit, cst.getChild(i), ranges, candidates);
+        }
+    }
+
+    private static void addCandidates(CompilationUnit unit, String simpleName, Map<String, List<ClassSymbol>> candidates) {
+        // a single hash lookup per name
+        candidates.computeIfAbsent(simpleName, unit.getEnv()::getClassesBySimpleName);
+    }
+
+    private static boolean isInRange(ParseTree cst, List<Range> ranges) {
+        Range cstRange = Range.of(cst);
+        if (cstRange.start().line() < 0) {
+            return false;
+        }
+        for (Range range : ranges) {
+            // overlapping, or touching the requested position
+            if (cstRange.start().line() <= range.end().line()
+                    && cstRange.end().line() >= range.start().line()
+                    && (cstRange.start().line() != range.end().line() || cstRange.start().column() <= range.end().column())
+                    && (cstRange.end().line() != range.start().line() || cstRange.end().column() >= range.start().column())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * After the last import, or else after the preprocessors at the top of the file.
+     */
+    private static Position getImportInsertPosition(CompilationUnit unit) {
+        int line = 0;
+        if (unit.getParseTree() instanceof CompilationUnitContext root) {
+            for (TopLevelElementContext element : root.topLevelElement()) {
+                if (element.importDeclaration() != null) {
+                    line = Math.max(line, Range.of(element).end().line() + 1);
+                }
+            }
+        }
+        if (line == 0) {
+            for (Token token : unit.getTokenStream().getTokens()) {
+                if (token.getChannel() == ZenScriptLexer.PREPROCESSOR_CHANNEL) {
+                    line = Math.max(line, Range.of(token).end().line() + 1);
+                }
+            }
+        }
+        return new Position(line, 0);
+    }
+
+    private static CodeAction createImportAction(String title, String uri, Position position, Collection<String> qualifiedNames) {
+        StringBuilder builder = new StringBuilder();
+        for (String qualifiedName : qualifiedNames) {
+            builder.append("import ").append(qualifiedName).append(";\n");
+        }
+        TextEdit edit = new TextEdit(new org.eclipse.lsp4j.Range(position, position), builder.toString());
+        CodeAction action = new CodeAction(title);
+        action.setKind(CodeActionKind.QuickFix);
+        action.setEdit(new WorkspaceEdit(Map.of(uri, List.of(edit))));
+        return action;
+    }
+
+}
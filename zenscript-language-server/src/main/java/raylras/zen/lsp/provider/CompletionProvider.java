@@ -1,59 +1,222 @@
 package raylras.zen.lsp.provider;
 
+import com.google.gson.JsonPrimitive;
+import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.misc.Interval;
 import org.antlr.v4.runtime.tree.ErrorNode;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.RuleNode;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.eclipse.lsp4j.*;
 import org.eclipse.lsp4j.jsonrpc.messages.Either;
-import raylras.zen.bracket.BracketHandlerEntry;
+import raylras.zen.bracket.BracketCompletionIndex;
 import raylras.zen.lsp.provider.data.Keywords;
 import raylras.zen.lsp.provider.data.Snippet;
+import raylras.zen.lsp.util.TextSimilarity;
+import raylras.zen.model.CompilationEnvironment;
 import raylras.zen.model.CompilationUnit;
 import raylras.zen.model.Compilations;
+import raylras.zen.model.OccurrenceTable;
 import raylras.zen.model.Visitor;
+import raylras.zen.model.parser.ZenScriptLexer;
 import raylras.zen.model.parser.ZenScriptParser.*;
 import raylras.zen.model.resolve.TypeResolver;
 import raylras.zen.model.scope.Scope;
+import raylras.zen.model.symbol.ClassSymbol;
 import raylras.zen.model.symbol.Executable;
+import raylras.zen.model.symbol.MemberView;
+import raylras.zen.model.symbol.ParseTreeLocatable;
 import raylras.zen.model.symbol.Symbol;
-import raylras.zen.model.symbol.SymbolProvider;
 import raylras.zen.model.type.Type;
 import raylras.zen.util.CSTNodes;
+import raylras.zen.util.LruCache;
+import raylras.zen.util.PathUtil;
 import raylras.zen.util.Position;
 import raylras.zen.util.Range;
 import raylras.zen.util.Ranges;
 import raylras.zen.util.l10n.L10N;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Optional;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
 import java.util.stream.Collectors;
 
 public final class CompletionProvider {
 
+    /**
+     * At most this many items are sent to the client,
+     * the list is marked incomplete when more have matched.
+     */
+    private static final int MAXIMUM_ITEMS = 200;
+
+    /**
+     * The symbols of the items recently sent, looked up by the {@code data} handle of an item on resolve.
+     */
+    private static final LruCache<Long, Resolvable> RESOLVABLES = new LruCache<>(MAXIMUM_ITEMS * 8);
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    /**
+     * Whether the client takes the label details of an item on resolve, most only take its documentation and details.
+     */
+    private static volatile boolean resolvesLabelDetails = false;
+
+    private static final LruCache<Path, MemberSession> MEMBER_SESSIONS = new LruCache<>(16);
+
     private CompletionProvider() {
     }
 
     public static Optional<Either<List<CompletionItem>, CompletionList>> completion(CompilationUnit unit, CompletionParams params) {
         CompletionVisitor visitor = new CompletionVisitor(unit, params);
         unit.accept(visitor);
-        if (visitor.completionList.isEmpty()) {
+        if (visitor.candidates.isEmpty()) {
             return Optional.empty();
         } else {
-            return Optional.of(Either.forLeft(visitor.completionList));
+            return Optional.of(Either.forRight(new CompletionList(visitor.incomplete, visitor.getRankedItems())));
         }
     }
 
+    public static void setClientCapabilities(CompletionCapabilities capabilities) {
+        resolvesLabelDetails = Optional.ofNullable(capabilities)
+                .map(CompletionCapabilities::getCompletionItem)
+                .map(CompletionItemCapabilities::getResolveSupport)
+                .map(CompletionItemResolveSupportCapabilities::getProperties)
+                .map(properties -> properties.contains("labelDetails"))
+                .orElse(false);
+    }
+
+    /**
+     * Fills in the details of an item sent by {@link #completion}, once the user has highlighted it.
+     */
+    public static Optional<CompletionItem> resolveCompletionItem(CompletionItem unresolved) {
+        Object data = unresolved.getData();
+        long id;
+        if (data instanceof JsonPrimitive primitive && primitive.isNumber()) {
+            id = primitive.getAsLong();
+        } else if (data instanceof Number number) {
+            id = number.longValue();
+        } else {
+            return Optional.empty();
+        }
+        Resolvable resolvable = RESOLVABLES.get(id);
+        if (resolvable == null) {
+            return Optional.empty();
+        }
+        // the types of the symbol are resolved against the environment, which must not change meanwhile
+        ReadLock readLock = resolvable.env().readLock();
+        readLock.lock();
+        try {
+            // clients resolve after sending further changes, the symbol is gone once its unit has been reloaded or removed
+            if (!resolvable.isCurrent()) {
+                return Optional.empty();
+            }
+            unresolved.setDetail(createDetail(resolvable.symbol()));
+            if (resolvesLabelDetails) {
+                unresolved.setLabelDetails(createLabelDetails(resolvable.symbol()));
+            }
+            return Optional.of(unresolved);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Drops everything kept for the items of an environment, once it is no longer used.
+     */
+    public static void release(CompilationEnvironment env) {
+        RESOLVABLES.invalidateIf((id, resolvable) -> resolvable.env() == env);
+        MEMBER_SESSIONS.invalidateIf((path, session) -> PathUtil.isSubPath(path, env.getRoot()));
+    }
+
+    private static long register(Symbol symbol, CompilationEnvironment env) {
+        long id = NEXT_ID.incrementAndGet();
+        if (symbol instanceof ParseTreeLocatable locatable) {
+            RESOLVABLES.put(id, new Resolvable(symbol, env, locatable.getUnit(), locatable.getUnit().getVersion()));
+        } else {
+            RESOLVABLES.put(id, new Resolvable(symbol, env, null, 0));
+        }
+        return id;
+    }
+
+    private static String createDetail(Symbol symbol) {
+        if (symbol instanceof Executable executable) {
+            return createParameterList(executable) + " as " + executable.getReturnType().getSimpleTypeName();
+        } else {
+            return symbol.getType().getSimpleTypeName();
+        }
+    }
+
+    private static CompletionItemLabelDetails createLabelDetails(Symbol symbol) {
+        if (symbol instanceof Executable executable) {
+            CompletionItemLabelDetails labelDetails = new CompletionItemLabelDetails();
+            String parameterList = createParameterList(executable);
+            String returnType = executable.getReturnType().getSimpleTypeName();
+            labelDetails.setDetail(parameterList);
+            labelDetails.setDescription(returnType);
+            return labelDetails;
+        } else {
+            CompletionItemLabelDetails labelDetails = new CompletionItemLabelDetails();
+            String type = symbol.getType().getSimpleTypeName();
+            labelDetails.setDescription(type);
+            return labelDetails;
+        }
+    }
+
+    private static String createParameterList(Executable executable) {
+        return executable.getParameterList().stream()
+                .map(param -> param.getName() + " as " + param.getType().getSimpleTypeName())
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    /**
+     * The members of the receiver of a member access, kept while the user types the member name.
+     *
+     * @param textBefore        the text of the document before the member name
+     * @param textAfter         the text of the document after the member name
+     * @param dependencyVersion the dependency version of the document when the members were collected
+     * @param packageVersion    the package version of the environment when the members were collected
+     */
+    private record MemberSession(String textBefore, String textAfter, long dependencyVersion, long packageVersion, Type type, List<Symbol> members) {
+        boolean isFollowedBy(String textBefore, String textAfter, long dependencyVersion, long packageVersion) {
+            // only the member name has been edited, and nothing the document resolves names into has changed
+            return this.dependencyVersion == dependencyVersion
+                    && this.packageVersion == packageVersion
+                    && this.textBefore.equals(textBefore)
+                    && this.textAfter.equals(textAfter);
+        }
+    }
+
+    /**
+     * @param unit        the unit declaring the symbol, or {@code null} for a symbol not declared by any unit
+     * @param unitVersion the version of the unit when the item was sent
+     */
+    private record Resolvable(Symbol symbol, CompilationEnvironment env, CompilationUnit unit, long unitVersion) {
+        boolean isCurrent() {
+            return unit == null || (env.getUnit(unit.getPath()) == unit && unit.getVersion() == unitVersion);
+        }
+    }
+
+    /**
+     * @param symbol the symbol the item was created from, or {@code null}
+     * @param order the order in which the item was appended, earlier items win a tie
+     */
+    private record Candidate(CompletionItem item, Symbol symbol, int score, int order) {
+        static final Comparator<Candidate> WORST_FIRST = Comparator.comparingInt(Candidate::score)
+                .thenComparing(Comparator.comparingInt(Candidate::order).reversed());
+    }
+
     private static final class CompletionVisitor extends Visitor<Void> {
         final Position cursor;
         final ParseTree tailing;
         final TerminalNode leading;
         final String text;
         final CompilationUnit unit;
-        final List<CompletionItem> completionList = new ArrayList<>();
+        final PriorityQueue<Candidate> candidates = new PriorityQueue<>(Candidate.WORST_FIRST);
+        String prefix;
+        boolean incomplete;
+        int order;
 
         CompletionVisitor(CompilationUnit unit, CompletionParams params) {
             this.cursor = Position.of(params.getPosition());
@@ -61,6 +224,7 @@ public final class CompletionProvider {
             this.leading = CSTNodes.getPrevTerminal(unit.getTokenStream(), tailing);
             this.text = tailing.getText();
             this.unit = unit;
+            this.prefix = OccurrenceTable.isIdentifierLike(text) ? getTextUntilCursor(tailing) : "";
         }
 
         /*
@@ -74,28 +238,28 @@ public final class CompletionProvider {
             // import text|
             // ^^^^^^ ____
             if (containsLeading(ctx.IMPORT())) {
-                appendImports();
+                appendImports(ctx);
                 return null;
             }
 
             // import foo.|
             //        ^^^_
             if (tailing instanceof ErrorNode && ".".equals(text)) {
-                appendImports();
+                appendImports(ctx);
                 return null;
             }
 
             // import foo.text|
             //           ^____
             if (containsLeading(ctx.qualifiedName().DOT())) {
-                appendImports();
+                appendImports(ctx);
                 return null;
             }
 
             // import foo.|bar
             //        ^^^_
             if (containsTailing(ctx.qualifiedName().DOT())) {
-                appendImports();
+                appendImports(ctx);
                 return null;
             }
 
@@ -426,6 +590,7 @@ public final class CompletionProvider {
             // <text|
             // ^____
             if (containsLeading(ctx.LESS_THEN()) && containsTailing(ctx.raw())) {
+                prefix = getTextUntilCursor(ctx.raw());
                 appendBracketHandlers();
                 return null;
             }
@@ -473,9 +638,9 @@ public final class CompletionProvider {
             // expr.text|
             //     ^____
             if (containsLeading(ctx.DOT())) {
-                TypeResolver.getType(expr, unit).ifPresent(type -> {
-                    appendMembers(type);
-                    appendMemberAccessSnippets(type, ctx);
+                getMemberSession(ctx).ifPresent(session -> {
+                    appendMembers(session.members());
+                    appendMemberAccessSnippets(session.type(), ctx);
                 });
                 return null;
             }
@@ -483,9 +648,9 @@ public final class CompletionProvider {
             // expr.|
             // ^^^^_
             if (containsLeading(expr)) {
-                TypeResolver.getType(expr, unit).ifPresent(type -> {
-                    appendMembers(type);
-                    appendMemberAccessSnippets(type, ctx);
+                getMemberSession(ctx).ifPresent(session -> {
+                    appendMembers(session.members());
+                    appendMemberAccessSnippets(session.type(), ctx);
                 });
                 return null;
             }
@@ -597,15 +762,50 @@ public final class CompletionProvider {
             return "";
         }
 
-        void appendImports() {
-            // FIXME: appendImports
+        void appendImports(ImportDeclarationContext ctx) {
+            String qualifiedName = getImportTextUntilCursor(ctx);
+            unit.getEnv().getClassTree().complete(qualifiedName).forEach((name, tree) -> {
+                CompletionItem item = new CompletionItem(name);
+                Symbol element = tree.getElement();
+                if (element instanceof ClassSymbol) {
+                    item.setKind(CompletionItemKind.Class);
+                } else if (element != null) {
+                    item.setKind(CompletionItemKind.File);
+                } else {
+                    item.setKind(CompletionItemKind.Module);
+                }
+                addToCompletionList(item);
+            });
+        }
+
+        /**
+         * The qualified name between {@code import} and the cursor, whitespace excluded.
+         */
+        String getImportTextUntilCursor(ImportDeclarationContext ctx) {
+            StringBuilder builder = new StringBuilder();
+            TokenStream tokenStream = unit.getTokenStream();
+            for (int i = ctx.IMPORT().getSymbol().getTokenIndex() + 1; i < tokenStream.size(); i++) {
+                Token token = tokenStream.get(i);
+                if (token.getChannel() != Token.DEFAULT_CHANNEL) {
+                    continue;
+                }
+                if (token.getType() == Token.EOF || token.getType() == ZenScriptLexer.AS || token.getType() == ZenScriptLexer.SEMICOLON) {
+                    break;
+                }
+                Range range = Range.of(token);
+                if (range.start().line() != cursor.line() || range.start().column() >= cursor.column()) {
+                    break;
+                }
+                String text = token.getText();
+                builder.append(text, 0, Math.min(text.length(), cursor.column() - range.start().column()));
+            }
+            return builder.toString();
         }
 
         void appendLocalSymbols() {
             Scope scope = Compilations.lookupScope(unit, tailing).orElse(null);
             while (scope != null) {
                 scope.getSymbols().stream()
-                        .map(this::createCompletionItem)
                         .forEach(this::addToCompletionList);
                 scope = scope.getParent();
             }
@@ -613,22 +813,42 @@ public final class CompletionProvider {
 
         void appendGlobalSymbols() {
             unit.getEnv().getGlobals()
-                    .map(this::createCompletionItem)
                     .forEach(this::addToCompletionList);
         }
 
-        void appendMembers(Type type) {
-            if (type instanceof SymbolProvider provider) {
-                provider.withExpands(unit.getEnv()).getSymbols().stream()
-                        .filter(this::shouldCreateCompletionItem)
-                        .map(this::createCompletionItem)
-                        .forEach(this::addToCompletionList);
+        void appendMembers(List<Symbol> members) {
+            members.forEach(this::addToCompletionList);
+        }
+
+        /**
+         * Reuses the members of the receiver found by the previous request on this document,
+         * as long as the document has only been edited within the member name since.
+         */
+        Optional<MemberSession> getMemberSession(MemberAccessExprContext ctx) {
+            CharStream input = unit.getTokenStream().getTokenSource().getInputStream();
+            int memberStart = ctx.DOT().getSymbol().getStopIndex() + 1;
+            int memberEnd = Math.max(ctx.getStop().getStopIndex() + 1, memberStart);
+            String textBefore = input.getText(Interval.of(0, memberStart - 1));
+            String textAfter = input.getText(Interval.of(memberEnd, input.size() - 1));
+            long dependencyVersion = unit.getDependencyVersion();
+            long packageVersion = unit.getEnv().getPackageVersion();
+            MemberSession session = MEMBER_SESSIONS.get(unit.getPath());
+            if (session != null && session.isFollowedBy(textBefore, textAfter, dependencyVersion, packageVersion)) {
+                return Optional.of(session);
             }
+            return TypeResolver.getType(ctx.expression(), unit).map(type -> {
+                MemberSession created = new MemberSession(textBefore, textAfter, dependencyVersion, packageVersion, type, collectMembers(type));
+                MEMBER_SESSIONS.put(unit.getPath(), created);
+                return created;
+            });
+        }
+
+        List<Symbol> collectMembers(Type type) {
+            return MemberView.of(type, unit.getEnv()).collect(this::shouldCreateCompletionItem);
         }
 
         void appendTypeNames() {
-            unit.getImports().stream()
-                    .map(this::createCompletionItem)
+            unit.getImports()
                     .forEach(this::addToCompletionList);
         }
 
@@ -639,31 +859,22 @@ public final class CompletionProvider {
         }
 
         void appendBracketHandlers() {
-            Collection<BracketHandlerEntry> entries = unit.getEnv().getBracketHandlerService().getEntriesLocal();
-            entries.forEach(entry -> entry.getFirst("_id").ifPresent(id -> {
-                CompletionItem item = new CompletionItem();
-                item.setLabel(id);
+            BracketCompletionIndex index = unit.getEnv().getBracketHandlerService().getCompletionIndex();
+            List<BracketCompletionIndex.Completion> completions = index.find(prefix, MAXIMUM_ITEMS + 1);
+            if (completions.size() > MAXIMUM_ITEMS) {
+                incomplete = true;
+            }
+            for (BracketCompletionIndex.Completion completion : completions) {
+                CompletionItem item = new CompletionItem(completion.label());
                 item.setKind(CompletionItemKind.Value);
-                item.setInsertText(id + '>');
-                entry.getFirst("_name").ifPresent(name -> {
+                item.setInsertText(completion.insertText());
+                if (completion.description() != null) {
                     CompletionItemLabelDetails labelDetails = new CompletionItemLabelDetails();
-                    labelDetails.setDescription(name);
+                    labelDetails.setDescription(completion.description());
                     item.setLabelDetails(labelDetails);
-                });
+                }
                 addToCompletionList(item);
-            }));
-            entries.forEach(entry -> entry.getFirst("_name").ifPresent(name -> {
-                CompletionItem item = new CompletionItem();
-                item.setLabel(name);
-                item.setKind(CompletionItemKind.Value);
-                entry.getFirst("_id").ifPresent(id -> {
-                    item.setInsertText(id + '>');
-                    CompletionItemLabelDetails labelDetails = new CompletionItemLabelDetails();
-                    labelDetails.setDescription(id);
-                    item.setLabelDetails(labelDetails);
-                    addToCompletionList(item);
-                });
-            }));
+            }
         }
 
         void appendMemberAccessSnippets(Type type, MemberAccessExprContext ctx) {
@@ -690,10 +901,12 @@ public final class CompletionProvider {
             };
         }
 
+        /**
+         * Details require the types of the symbol, they are filled in on resolve.
+         */
         CompletionItem createCompletionItem(Symbol symbol) {
             CompletionItem item = new CompletionItem(symbol.getName());
             item.setKind(toCompletionKind(symbol));
-            item.setLabelDetails(createLabelDetails(symbol));
             if (symbol instanceof Executable executable) {
                 item.setInsertTextFormat(InsertTextFormat.Snippet);
                 if (executable.getParameterList().isEmpty()) {
@@ -712,24 +925,6 @@ public final class CompletionProvider {
             return item;
         }
 
-        CompletionItemLabelDetails createLabelDetails(Symbol symbol) {
-            if (symbol instanceof Executable executable) {
-                CompletionItemLabelDetails labelDetails = new CompletionItemLabelDetails();
-                String parameterList = executable.getParameterList().stream()
-                        .map(param -> param.getName() + " as " + param.getType().getSimpleTypeName())
-                        .collect(Collectors.joining(", ", "(", ")"));
-                String returnType = executable.getReturnType().getSimpleTypeName();
-                labelDetails.setDetail(parameterList);
-                labelDetails.setDescription(returnType);
-                return labelDetails;
-            } else {
-                CompletionItemLabelDetails labelDetails = new CompletionItemLabelDetails();
-                String type = symbol.getType().getSimpleTypeName();
-                labelDetails.setDescription(type);
-                return labelDetails;
-            }
-        }
-
         CompletionItemKind toCompletionKind(Symbol symbol) {
             return switch (symbol.getKind()) {
                 case IMPORT, CLASS -> CompletionItemKind.Class;
@@ -739,8 +934,45 @@ public final class CompletionProvider {
             };
         }
 
+        /**
+         * Drops the items not matching the text typed so far,
+         * and keeps only the best {@link #MAXIMUM_ITEMS} of the others.
+         */
+        void addToCompletionList(Symbol symbol) {
+            addToCompletionList(createCompletionItem(symbol), symbol);
+        }
+
         void addToCompletionList(CompletionItem item) {
-            completionList.add(item);
+            addToCompletionList(item, null);
+        }
+
+        void addToCompletionList(CompletionItem item, Symbol symbol) {
+            String filterText = (item.getFilterText() != null) ? item.getFilterText() : item.getLabel();
+            int score = TextSimilarity.fuzzyScore(prefix, filterText);
+            if (score == TextSimilarity.NO_MATCH) {
+                return;
+            }
+            candidates.add(new Candidate(item, symbol, score, order++));
+            if (candidates.size() > MAXIMUM_ITEMS) {
+                candidates.poll();
+                incomplete = true;
+            }
+        }
+
+        List<CompletionItem> getRankedItems() {
+            Candidate[] ranked = candidates.toArray(new Candidate[0]);
+            Arrays.sort(ranked, Candidate.WORST_FIRST.reversed());
+            List<CompletionItem> items = new ArrayList<>(ranked.length);
+            for (int i = 0; i < ranked.length; i++) {
+                CompletionItem item = ranked[i].item();
+                if (ranked[i].symbol() != null) {
+                    item.setData(register(ranked[i].symbol(), unit.getEnv()));
+                }
+                // keep the ranking of the server, clients sort by sortText
+                item.setSortText(String.format("%04d", i));
+                items.add(item);
+            }
+            return items;
         }
     }
 
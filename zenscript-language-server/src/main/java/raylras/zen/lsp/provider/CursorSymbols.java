@@ -0,0 +1,53 @@
+package raylras.zen.lsp.provider;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.resolve.SymbolResolver;
+import raylras.zen.model.symbol.ParseTreeLocatable;
+import raylras.zen.model.symbol.Symbol;
+import raylras.zen.util.CSTNodes;
+import raylras.zen.util.Position;
+import raylras.zen.util.Range;
+
+import java.util.Collection;
+import java.util.Optional;
+
+final class CursorSymbols {
+
+    private CursorSymbols() {}
+
+    static Optional<TerminalNode> getTerminal(CompilationUnit unit, Position cursor) {
+        if (unit.getParseTree() == null) {
+            return Optional.empty();
+        }
+        ParseTree cst = CSTNodes.getCstAtPosition(unit.getParseTree(), cursor);
+        if (cst instanceof TerminalNode node) {
+            return Optional.of(node);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the symbol declared by {@code node}, or else the only symbol {@code node} refers to
+     */
+    static Optional<Symbol> getSymbol(CompilationUnit unit, TerminalNode node) {
+        Range nodeRange = Range.of(node);
+        for (ParseTree cst = node.getParent(); cst != null; cst = cst.getParent()) {
+            Optional<Symbol> declared = unit.getSymbol(cst);
+            if (declared.isPresent()) {
+                if (declared.get() instanceof ParseTreeLocatable locatable
+                        && locatable.getSelectionRange().contains(nodeRange)) {
+                    return declared;
+                }
+                break;
+            }
+        }
+        Collection<Symbol> symbols = SymbolResolver.lookupSymbol(node, unit);
+        if (symbols.size() == 1) {
+            return symbols.stream().findFirst();
+        }
+        return Optional.empty();
+    }
+
+}
@@ -0,0 +1,79 @@
+package raylras.zen.lsp.provider;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.eclipse.lsp4j.DocumentHighlight;
+import org.eclipse.lsp4j.DocumentHighlightKind;
+import org.eclipse.lsp4j.DocumentHighlightParams;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.parser.ZenScriptParser.AssignmentExprContext;
+import raylras.zen.model.parser.ZenScriptParser.MemberAccessExprContext;
+import raylras.zen.model.parser.ZenScriptParser.SimpleNameExprContext;
+import raylras.zen.model.resolve.SymbolResolver;
+import raylras.zen.model.symbol.OperatorFunctionSymbol;
+import raylras.zen.model.symbol.ParseTreeLocatable;
+import raylras.zen.model.symbol.Symbol;
+import raylras.zen.util.Position;
+import raylras.zen.util.Ranges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public final class DocumentHighlightProvider {
+
+    private DocumentHighlightProvider() {}
+
+    /**
+     * Only the occurrences of the name in the current unit are resolved,
+     * and the resolutions come from the unit's lookup cache once they have been made.
+     */
+    public static Optional<List<? extends DocumentHighlight>> documentHighlight(CompilationUnit unit, DocumentHighlightParams params) {
+        Position cursor = Position.of(params.getPosition());
+        TerminalNode node = CursorSymbols.getTerminal(unit, cursor).orElse(null);
+        if (node == null) {
+            return Optional.empty();
+        }
+        Symbol symbol = CursorSymbols.getSymbol(unit, node).orElse(null);
+        if (symbol == null || symbol instanceof OperatorFunctionSymbol) {
+            return Optional.empty();
+        }
+
+        List<DocumentHighlight> highlights = new ArrayList<>();
+        org.eclipse.lsp4j.Range declarationRange = null;
+        if (symbol instanceof ParseTreeLocatable locatable && locatable.getUnit() == unit) {
+            declarationRange = locatable.getSelectionRange().toLspRange();
+            highlights.add(new DocumentHighlight(declarationRange, DocumentHighlightKind.Write));
+        }
+        for (TerminalNode occurrence : unit.getOccurrenceTable().getTerminals(symbol.getName())) {
+            org.eclipse.lsp4j.Range range = Ranges.toLspRange(occurrence);
+            if (range.equals(declarationRange)) {
+                continue;
+            }
+            if (SymbolResolver.lookupSymbol(occurrence, unit).contains(symbol)) {
+                highlights.add(new DocumentHighlight(range, getHighlightKind(occurrence)));
+            }
+        }
+        if (highlights.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(highlights);
+    }
+
+    public static CompletableFuture<List<? extends DocumentHighlight>> empty() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static DocumentHighlightKind getHighlightKind(TerminalNode node) {
+        // name -> simpleName -> expr, maybe wrapped by a member access
+        ParseTree expr = node.getParent().getParent();
+        if (expr instanceof SimpleNameExprContext || expr instanceof MemberAccessExprContext) {
+            if (expr.getParent() instanceof AssignmentExprContext assignment && assignment.left == expr) {
+                return DocumentHighlightKind.Write;
+            }
+        }
+        return DocumentHighlightKind.Read;
+    }
+
+}
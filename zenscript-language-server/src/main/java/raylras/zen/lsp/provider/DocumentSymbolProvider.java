@@ -10,6 +10,7 @@ import raylras.zen.model.parser.ZenScriptParser.*;
 import raylras.zen.util.ArrayStack;
 import raylras.zen.util.CSTNodes;
 import raylras.zen.util.Ranges;
+import raylras.zen.util.ResultCache;
 import raylras.zen.util.Stack;
 
 import java.util.ArrayList;
@@ -19,20 +20,27 @@ import java.util.concurrent.CompletableFuture;
 
 public final class DocumentSymbolProvider {
 
+    private static final ResultCache.Key<List<Either<SymbolInformation, DocumentSymbol>>> DOCUMENT_SYMBOLS = new ResultCache.Key<>("documentSymbol");
+
     private DocumentSymbolProvider() {}
 
     public static Optional<List<Either<SymbolInformation, DocumentSymbol>>> documentSymbol(CompilationUnit unit, DocumentSymbolParams params) {
-        DocumentSymbolVisitor visitor = new DocumentSymbolVisitor();
-        unit.getParseTree().accept(visitor);
-        if (visitor.topLevelSymbolList.isEmpty()) {
+        List<Either<SymbolInformation, DocumentSymbol>> symbols = unit.getResultCache().computeIfAbsent(DOCUMENT_SYMBOLS, () -> collect(unit));
+        if (symbols.isEmpty()) {
             return Optional.empty();
         } else {
-            return Optional.of(visitor.topLevelSymbolList.stream()
-                    .map(Either::<SymbolInformation, DocumentSymbol>forRight)
-                    .toList());
+            return Optional.of(symbols);
         }
     }
 
+    private static List<Either<SymbolInformation, DocumentSymbol>> collect(CompilationUnit unit) {
+        DocumentSymbolVisitor visitor = new DocumentSymbolVisitor();
+        unit.getParseTree().accept(visitor);
+        return visitor.topLevelSymbolList.stream()
+                .map(Either::<SymbolInformation, DocumentSymbol>forRight)
+                .toList();
+    }
+
     public static CompletableFuture<List<Either<SymbolInformation, DocumentSymbol>>> empty() {
         return CompletableFuture.completedFuture(null);
     }
@@ -5,6 +5,7 @@ import org.eclipse.lsp4j.Hover;
 import org.eclipse.lsp4j.HoverParams;
 import org.eclipse.lsp4j.MarkupContent;
 import org.eclipse.lsp4j.MarkupKind;
+import org.eclipse.lsp4j.Range;
 import raylras.zen.bracket.BracketHandlerEntry;
 import raylras.zen.bracket.BracketHandlerService;
 import raylras.zen.model.CompilationUnit;
@@ -16,17 +17,21 @@ import raylras.zen.util.Ranges;
 
 import java.util.Deque;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class HoverProvider {
 
     private HoverProvider() {}
 
-    public static Optional<Hover> hover(CompilationUnit unit, HoverParams params) {
+    /**
+     * @return the hover as a future, completed later if it waits for the remote
+     */
+    public static Optional<CompletableFuture<Hover>> hover(CompilationUnit unit, HoverParams params) {
         Position cursor = Position.of(params.getPosition());
         Deque<ParseTree> cstStack = CSTNodes.getCstStackAtPosition(unit.getParseTree(), cursor);
         HoverVisitor visitor = new HoverVisitor(unit.getEnv().getBracketHandlerService());
         for (ParseTree cst : cstStack) {
-            Hover hover = cst.accept(visitor);
+            CompletableFuture<Hover> hover = cst.accept(visitor);
             if (hover != null) {
                 return Optional.of(hover);
             }
@@ -34,7 +39,7 @@ public class HoverProvider {
         return Optional.empty();
     }
 
-    private static final class HoverVisitor extends Visitor<Hover> {
+    private static final class HoverVisitor extends Visitor<CompletableFuture<Hover>> {
 
         private final BracketHandlerService brackets;
 
@@ -43,8 +48,13 @@ public class HoverProvider {
         }
 
         @Override
-        public Hover visitBracketHandlerExpr(BracketHandlerExprContext ctx) {
-            BracketHandlerEntry entry = brackets.queryEntryRemote(ctx.raw().getText());
+        public CompletableFuture<Hover> visitBracketHandlerExpr(BracketHandlerExprContext ctx) {
+            Range range = Ranges.toLspRange(ctx);
+            return brackets.queryEntryRemote(ctx.raw().getText())
+                    .thenApply(entry -> toHover(entry, range));
+        }
+
+        private static Hover toHover(BracketHandlerEntry entry, Range range) {
             StringBuilder builder = new StringBuilder();
             entry.getFirst("_name").ifPresent(name -> {
                 builder.append("#### ");
@@ -57,7 +67,7 @@ public class HoverProvider {
                 builder.append("\n\n");
             });
             Hover hover = toHover(builder.toString());
-            hover.setRange(Ranges.toLspRange(ctx));
+            hover.setRange(range);
             return hover;
         }
 
@@ -1,17 +1,19 @@
 package raylras.zen.lsp.provider;
 
+import org.antlr.v4.runtime.Vocabulary;
 import org.antlr.v4.runtime.misc.Predicate;
 import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.eclipse.lsp4j.Location;
 import org.eclipse.lsp4j.ReferenceParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import raylras.zen.model.CompilationUnit;
-import raylras.zen.model.Listener;
+import raylras.zen.model.OccurrenceTable;
 import raylras.zen.model.parser.ZenScriptParser;
+import raylras.zen.model.resolve.ReferenceIndex;
 import raylras.zen.model.resolve.SymbolResolver;
+import raylras.zen.model.symbol.ExpandFunctionSymbol;
 import raylras.zen.model.symbol.OperatorFunctionSymbol;
 import raylras.zen.model.symbol.ParseTreeLocatable;
 import raylras.zen.model.symbol.Symbol;
@@ -21,17 +23,21 @@ import raylras.zen.util.Ranges;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 public class ReferencesProvider {
     private static final Logger logger = LoggerFactory.getLogger(ReferencesProvider.class);
 
 
     /**
-     * find references has four steps:
+     * find references has two steps:
      * 1. get a symbol under cursor
-     * 2. get a searching rule related to the symbol ( for most symbols, it matches name, but for some special symbols like operators are different)
-     * 3. search the terminal node at all documents
-     * 4. get the cst at every searched node, and resolve its symbol, filtering those containing the current symbol.
+     * 2. look up the usages of the symbol in the reference index of every unit that could access it
+     * <p>
+     * Operators are not referred to by name, they are found by scanning:
+     * 1. get a searching rule related to the operator
+     * 2. search the terminal node at all documents, among the tokens of the types the rule can match
+     * 3. get the cst at every searched node, and resolve its symbol, filtering those containing the current symbol.
      */
     public static Optional<List<? extends Location>> references(CompilationUnit unit, ReferenceParams params) {
         Position cursor = Position.of(params.getPosition());
@@ -41,20 +47,31 @@ public class ReferencesProvider {
             return Optional.empty();
         }
 
-        Predicate<TerminalNode> searchRule = getSymbolSearchRule(symbol);
-        if (searchRule == null) {
-            return Optional.empty();
+        List<Location> list;
+        if (symbol instanceof OperatorFunctionSymbol operator) {
+            Predicate<TerminalNode> searchRule = getSymbolSearchRule(symbol);
+            if (searchRule == null) {
+                return Optional.empty();
+            }
+            int[] tokenTypes = getSearchTokenTypes(operator);
+            list = getSearchingScope(symbol, unit).stream().parallel()
+                    .flatMap(cu -> {
+                                String uri = cu.getPath().toUri().toString();
+                                return searchPossible(searchRule, tokenTypes, cu.getOccurrenceTable()).stream().filter(cst -> {
+                                    Collection<? extends Symbol> symbols = SymbolResolver.lookupSymbol(cst, cu);
+                                    return symbols.stream().anyMatch(it -> Objects.equals(it, symbol));
+                                }).map(it -> toLocation(uri, it));
+                            }
+                    ).toList();
+        } else {
+            ReferenceIndex index = unit.getEnv().getReferenceIndex();
+            list = getSearchingScope(symbol, unit).stream().parallel()
+                    .flatMap(cu -> {
+                                String uri = cu.getPath().toUri().toString();
+                                return index.getReferences(symbol, cu).stream().map(it -> toLocation(uri, it));
+                            }
+                    ).toList();
         }
-
-        List<Location> list = getSearchingScope(symbol, unit).stream().parallel()
-                .flatMap(cu -> {
-                            String uri = cu.getPath().toUri().toString();
-                            return searchPossible(searchRule, cu.getParseTree()).stream().parallel().filter(cst -> {
-                                Collection<? extends Symbol> symbols = SymbolResolver.lookupSymbol(cst, unit);
-                                return symbols.stream().anyMatch(it -> Objects.equals(it, symbol));
-                            }).map(it -> toLocation(uri, it));
-                        }
-                ).toList();
         if (list.isEmpty()) {
             return Optional.empty();
         } else {
@@ -73,7 +90,7 @@ public class ReferencesProvider {
         return location;
     }
 
-    private static Collection<CompilationUnit> getSearchingScope(Symbol symbol, CompilationUnit symbolUnit) {
+    static Collection<CompilationUnit> getSearchingScope(Symbol symbol, CompilationUnit symbolUnit) {
         if (isGloballyAccessibleSymbol(symbol)) {
             return symbolUnit.getEnv().getUnits();
         }
@@ -82,20 +99,43 @@ public class ReferencesProvider {
 
     }
 
-    private static List<ParseTree> searchPossible(Predicate<TerminalNode> search, ParseTree searchingScope) {
+    static List<ParseTree> searchPossible(Predicate<TerminalNode> search, int[] tokenTypes, OccurrenceTable occurrences) {
         List<ParseTree> result = new ArrayList<>();
-        ParseTreeWalker.DEFAULT.walk(new Listener() {
-            @Override
-            public void visitTerminal(TerminalNode node) {
+        for (int tokenType : tokenTypes) {
+            for (TerminalNode node : occurrences.getTerminals(tokenType)) {
                 if (search.test(node)) {
                     result.add(node);
                 }
             }
-        }, searchingScope);
+        }
         return result;
     }
 
-    private static Predicate<TerminalNode> getSymbolSearchRule(Symbol symbol) {
+    static int[] getSearchTokenTypes(OperatorFunctionSymbol operator) {
+        return switch (operator.getOperator()) {
+            case INDEX_GET, INDEX_SET -> new int[]{ZenScriptParser.BRACK_OPEN};
+            case RANGE -> new int[]{ZenScriptParser.TO, ZenScriptParser.DOT_DOT};
+            case HAS -> new int[]{ZenScriptParser.HAS, ZenScriptParser.IN};
+            case EQUALS -> new int[]{ZenScriptParser.EQUAL, ZenScriptParser.NOT_EQUAL, ZenScriptParser.LESS_THEN,
+                    ZenScriptParser.LESS_EQUAL, ZenScriptParser.GREATER_THEN, ZenScriptParser.GREATER_EQUAL};
+            case MEMBER_GET, MEMBER_SET -> new int[]{ZenScriptParser.DOT};
+            case AS -> new int[]{ZenScriptParser.AS, ZenScriptParser.INSTANCEOF};
+            case FOR_IN -> new int[]{ZenScriptParser.IN};
+            default -> {
+                // the operator itself and its compound assignment
+                String opName = operator.getName();
+                Vocabulary vocabulary = ZenScriptParser.VOCABULARY;
+                yield IntStream.rangeClosed(1, vocabulary.getMaxTokenType())
+                        .filter(type -> {
+                            String literal = vocabulary.getLiteralName(type);
+                            return ("'" + opName + "'").equals(literal) || ("'" + opName + "='").equals(literal);
+                        })
+                        .toArray();
+            }
+        };
+    }
+
+    static Predicate<TerminalNode> getSymbolSearchRule(Symbol symbol) {
         if (symbol instanceof OperatorFunctionSymbol operator) {
             String opName = operator.getName();
             return switch (operator.getOperator()) {
@@ -139,9 +179,14 @@ public class ReferencesProvider {
             return true;
         }
 
-        if (symbol.getKind() == Symbol.Kind.VARIABLE && symbol instanceof ParseTreeLocatable locatable) {
+        // expand functions are called on values of other units.
+        if (symbol instanceof ExpandFunctionSymbol) {
+            return true;
+        }
+
+        if (symbol instanceof ParseTreeLocatable locatable) {
             ParseTree parent = CSTNodes.findParentOfTypes(locatable.getCst(), ZenScriptParser.ClassDeclarationContext.class, ZenScriptParser.BlockStatementContext.class);
-            // variables and functions in classes are accessible by other units.
+            // variables and functions in classes are accessible by other units, whatever their modifiers are.
             if (parent instanceof ZenScriptParser.ClassDeclarationContext) {
                 return true;
             }
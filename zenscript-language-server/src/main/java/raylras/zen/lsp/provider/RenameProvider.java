@@ -0,0 +1,144 @@
+package raylras.zen.lsp.provider;
+
+import org.antlr.v4.runtime.Vocabulary;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.eclipse.lsp4j.*;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.Either3;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseError;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.parser.ZenScriptLexer;
+import raylras.zen.model.parser.ZenScriptParser.ImportDeclarationContext;
+import raylras.zen.model.resolve.ReferenceIndex;
+import raylras.zen.model.symbol.*;
+import raylras.zen.util.Position;
+import raylras.zen.util.Ranges;
+import raylras.zen.util.l10n.L10N;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public final class RenameProvider {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-zA-Z_][a-zA-Z0-9_]*");
+
+    private RenameProvider() {}
+
+    public static Optional<Either3<org.eclipse.lsp4j.Range, PrepareRenameResult, PrepareRenameDefaultBehavior>> prepareRename(CompilationUnit unit, PrepareRenameParams params) {
+        Position cursor = Position.of(params.getPosition());
+        TerminalNode node = CursorSymbols.getTerminal(unit, cursor).orElse(null);
+        if (node == null) {
+            return Optional.empty();
+        }
+        return CursorSymbols.getSymbol(unit, node)
+                .flatMap(RenameProvider::getRenameTarget)
+                .map(symbol -> Either3.forSecond(new PrepareRenameResult(Ranges.toLspRange(node), node.getText())));
+    }
+
+    /**
+     * rename has three steps:
+     * 1. get the symbol under cursor, an import without alias stands for its target
+     * 2. collect the declaring name and the usages of the symbol from the reference index of every unit that could access it,
+     * together with the usages of the imports that bring the symbol in under its own name
+     * 3. replace them all in a single workspace edit
+     *
+     * @throws ResponseErrorException if the new name is not a valid name
+     */
+    public static Optional<WorkspaceEdit> rename(CompilationUnit unit, RenameParams params) {
+        String newName = params.getNewName();
+        if (!isValidName(newName)) {
+            String message = String.format(L10N.getString("rename.invalid_name"), newName);
+            throw new ResponseErrorException(new ResponseError(ResponseErrorCode.InvalidParams, message, null));
+        }
+        Position cursor = Position.of(params.getPosition());
+        Symbol symbol = CursorSymbols.getTerminal(unit, cursor)
+                .flatMap(node -> CursorSymbols.getSymbol(unit, node))
+                .flatMap(RenameProvider::getRenameTarget)
+                .orElse(null);
+        if (symbol == null) {
+            return Optional.empty();
+        }
+
+        ParseTreeLocatable declaration = (ParseTreeLocatable) symbol;
+        ReferenceIndex index = unit.getEnv().getReferenceIndex();
+        Map<String, List<TextEdit>> changes = ReferencesProvider.getSearchingScope(symbol, declaration.getUnit()).stream().parallel()
+                .map(cu -> {
+                    Set<org.eclipse.lsp4j.Range> ranges = new LinkedHashSet<>();
+                    if (cu == declaration.getUnit()) {
+                        ranges.add(declaration.getSelectionRange().toLspRange());
+                    }
+                    addUsages(ranges, index.getReferences(symbol, cu));
+                    for (ImportSymbol importSymbol : cu.getImports()) {
+                        if (isImportedByOwnName(importSymbol, symbol)) {
+                            addUsages(ranges, index.getReferences(importSymbol, cu));
+                        }
+                    }
+                    List<TextEdit> edits = ranges.stream()
+                            .map(range -> new TextEdit(range, newName))
+                            .toList();
+                    return Map.entry(cu.getPath().toUri().toString(), edits);
+                })
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (changes.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new WorkspaceEdit(changes));
+    }
+
+    public static CompletableFuture<WorkspaceEdit> empty() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static Optional<Symbol> getRenameTarget(Symbol symbol) {
+        if (symbol instanceof ImportSymbol importSymbol && !hasAlias(importSymbol)) {
+            Collection<Symbol> targets = importSymbol.getTargets();
+            if (targets.size() != 1) {
+                return Optional.empty();
+            }
+            symbol = targets.iterator().next();
+        }
+        if (!(symbol instanceof ParseTreeLocatable locatable) || locatable.getUnit().isGenerated()) {
+            return Optional.empty();
+        }
+        if (symbol instanceof OperatorFunctionSymbol || symbol instanceof ConstructorSymbol || symbol instanceof ThisSymbol) {
+            return Optional.empty();
+        }
+        return Optional.of(symbol);
+    }
+
+    private static boolean hasAlias(ImportSymbol importSymbol) {
+        return importSymbol instanceof ParseTreeLocatable locatable
+                && locatable.getCst() instanceof ImportDeclarationContext cst
+                && cst.alias() != null;
+    }
+
+    private static boolean isImportedByOwnName(ImportSymbol importSymbol, Symbol symbol) {
+        return !hasAlias(importSymbol)
+                && symbol.getName().equals(importSymbol.getName())
+                && importSymbol.getTargets().contains(symbol);
+    }
+
+    private static void addUsages(Set<org.eclipse.lsp4j.Range> ranges, List<TerminalNode> usages) {
+        for (TerminalNode usage : usages) {
+            ranges.add(Ranges.toLspRange(usage));
+        }
+    }
+
+    private static boolean isValidName(String name) {
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            return false;
+        }
+        Vocabulary vocabulary = ZenScriptLexer.VOCABULARY;
+        for (int type = 1; type <= vocabulary.getMaxTokenType(); type++) {
+            if (("'" + name + "'").equals(vocabulary.getLiteralName(type))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -1,47 +1,287 @@
 package raylras.zen.lsp.provider;
 
-import org.eclipse.lsp4j.SemanticTokens;
-import org.eclipse.lsp4j.SemanticTokensParams;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.eclipse.lsp4j.*;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import raylras.zen.lsp.Semantics;
+import raylras.zen.lsp.Semantics.TokenModifier;
+import raylras.zen.lsp.Semantics.TokenType;
 import raylras.zen.model.CompilationUnit;
-import raylras.zen.model.Listener;
+import raylras.zen.model.symbol.*;
+import raylras.zen.util.IntArray;
 import raylras.zen.util.Range;
+import raylras.zen.util.ResultCache;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class SemanticTokensProvider extends Listener {
+public final class SemanticTokensProvider {
+
+    private static final ResultCache.Key<Tokens> TOKENS = new ResultCache.Key<>("semanticTokens");
+    private static final AtomicLong RESULT_ID = new AtomicLong();
+
+    private static final int TOKEN_SIZE = 5;
+    // a sort key packs the line, the column and the index of a token into a long
+    private static final int COLUMN_BITS = 20;
+    private static final int INDEX_BITS = 20;
+    private static final int BITS_MASK = (1 << 20) - 1;
+    private static final int MAX_PACKED_LINE = (1 << (63 - COLUMN_BITS - INDEX_BITS)) - 1;
+
+    private SemanticTokensProvider() {}
 
     public static Optional<SemanticTokens> semanticTokensFull(CompilationUnit unit, SemanticTokensParams params) {
-        SemanticTokensProvider provider = new SemanticTokensProvider(unit);
-        if (provider.data.isEmpty()) {
+        Tokens tokens = getTokens(unit);
+        if (tokens.encoded().isEmpty()) {
             return Optional.empty();
-        } else {
-            return Optional.of(new SemanticTokens(provider.data));
         }
+        return Optional.of(new SemanticTokens(tokens.resultId(), tokens.encoded().asList()));
+    }
+
+    /**
+     * Diffs against the previous result of the document when the client still has it,
+     * and falls back to the full result otherwise.
+     */
+    public static Optional<Either<SemanticTokens, SemanticTokensDelta>> semanticTokensFullDelta(CompilationUnit unit, SemanticTokensDeltaParams params) {
+        Tokens previous = unit.getResultCache().getLatest(TOKENS).orElse(null);
+        Tokens current = getTokens(unit);
+        if (previous == null || !previous.resultId().equals(params.getPreviousResultId())) {
+            return Optional.of(Either.forLeft(new SemanticTokens(current.resultId(), current.encoded().asList())));
+        }
+        if (previous == current) {
+            return Optional.of(Either.forRight(new SemanticTokensDelta(Collections.emptyList(), current.resultId())));
+        }
+        return Optional.of(Either.forRight(new SemanticTokensDelta(diff(previous.encoded(), current.encoded()), current.resultId())));
     }
 
-    private final CompilationUnit unit;
-    private final List<Integer> data = new ArrayList<>();
-    private int prevLine = Range.FIRST_LINE;
-    private int prevColumn = Range.FIRST_COLUMN;
+    /**
+     * Encodes only the tokens of the requested lines, found by binary search on the cached tokens.
+     */
+    public static Optional<SemanticTokens> semanticTokensRange(CompilationUnit unit, SemanticTokensRangeParams params) {
+        Tokens tokens = getTokens(unit);
+        Range range = Range.of(params.getRange());
+        IntArray absolute = tokens.absolute();
+        int count = absolute.size() / TOKEN_SIZE;
+        int from = lowerBound(absolute, count, range.start().line());
+        IntArray encoded = new IntArray();
+        Encoder encoder = new Encoder(encoded);
+        for (int i = from; i < count; i++) {
+            int offset = i * TOKEN_SIZE;
+            if (absolute.get(offset) > range.end().line()) {
+                break;
+            }
+            encoder.push(absolute.get(offset), absolute.get(offset + 1), absolute.get(offset + 2), absolute.get(offset + 3), absolute.get(offset + 4));
+        }
+        if (encoded.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SemanticTokens(encoded.asList()));
+    }
+
+    /**
+     * Tokens of usages are resolved against other units, so they are also outdated once the environment has changed.
+     */
+    private static Tokens getTokens(CompilationUnit unit) {
+        long envVersion = unit.getEnv().getVersion();
+        return unit.getResultCache().computeIfAbsent(TOKENS, tokens -> tokens.envVersion() == envVersion, () -> collect(unit, envVersion));
+    }
 
-    private SemanticTokensProvider(CompilationUnit unit) {
-        this.unit = unit;
+    private static Tokens collect(CompilationUnit unit, long envVersion) {
+        IntArray collected = new IntArray();
+        for (Symbol symbol : unit.getSymbols()) {
+            if (symbol instanceof ParseTreeLocatable locatable) {
+                int tokenType = getTokenType(symbol);
+                if (tokenType >= 0) {
+                    int tokenModifiers = Semantics.getTokenModifiers(symbol.getModifier());
+                    add(collected, locatable.getSelectionRange(), tokenType, tokenModifiers);
+                }
+            }
+        }
+        for (Map.Entry<Symbol, List<TerminalNode>> entry : unit.getEnv().getReferenceIndex().getReferences(unit).entrySet()) {
+            Symbol symbol = entry.getKey();
+            int tokenType = getTokenType(symbol);
+            if (tokenType < 0) {
+                continue;
+            }
+            int tokenModifiers = Semantics.getTokenModifiers(symbol.getModifier()) & ~TokenModifier.DEFINITION.flag;
+            for (TerminalNode node : entry.getValue()) {
+                add(collected, Range.of(node), tokenType, tokenModifiers);
+            }
+        }
+        IntArray absolute = sort(collected);
+        IntArray encoded = new IntArray(absolute.size());
+        Encoder encoder = new Encoder(encoded);
+        for (int offset = 0; offset < absolute.size(); offset += TOKEN_SIZE) {
+            encoder.push(absolute.get(offset), absolute.get(offset + 1), absolute.get(offset + 2), absolute.get(offset + 3), absolute.get(offset + 4));
+        }
+        return new Tokens(envVersion, String.valueOf(RESULT_ID.incrementAndGet()), absolute, encoded);
     }
 
-    private void push(Range range, int tokenType, int tokenModifiers) {
-        if (range == null) return;
-        int line = range.start().line() - prevLine;
-        int column = range.start().line() == prevLine ? range.start().column() - prevColumn : range.start().column();
+    private static void add(IntArray collected, Range range, int tokenType, int tokenModifiers) {
+        // semantic tokens are single line
+        if (range.start().line() < 0 || range.start().line() != range.end().line()) {
+            return;
+        }
         int length = range.end().column() - range.start().column();
-        prevLine = range.start().line();
-        prevColumn = range.start().column();
-        data.add(line);
-        data.add(column);
-        data.add(length);
-        data.add(tokenType);
-        data.add(tokenModifiers);
+        if (length <= 0) {
+            return;
+        }
+        collected.add(range.start().line());
+        collected.add(range.start().column());
+        collected.add(length);
+        collected.add(tokenType);
+        collected.add(tokenModifiers);
+    }
+
+    /**
+     * Sorts the tokens by position and drops those starting at the same position as the one before.
+     */
+    private static IntArray sort(IntArray collected) {
+        int count = collected.size() / TOKEN_SIZE;
+        int[] order = fitsPackedKeys(collected, count) ? sortByPackedKeys(collected, count) : sortByComparator(collected, count);
+        IntArray sorted = new IntArray(collected.size());
+        int previousLine = -1;
+        int previousColumn = -1;
+        for (int index : order) {
+            int offset = index * TOKEN_SIZE;
+            int line = collected.get(offset);
+            int column = collected.get(offset + 1);
+            if (line == previousLine && column == previousColumn) {
+                continue;
+            }
+            previousLine = line;
+            previousColumn = column;
+            for (int j = 0; j < TOKEN_SIZE; j++) {
+                sorted.add(collected.get(offset + j));
+            }
+        }
+        return sorted;
+    }
+
+    private static boolean fitsPackedKeys(IntArray collected, int count) {
+        if (count > BITS_MASK + 1) {
+            return false;
+        }
+        for (int offset = 0; offset < collected.size(); offset += TOKEN_SIZE) {
+            if (collected.get(offset) > MAX_PACKED_LINE || collected.get(offset + 1) > BITS_MASK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] sortByPackedKeys(IntArray collected, int count) {
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            int offset = i * TOKEN_SIZE;
+            keys[i] = ((long) collected.get(offset) << (COLUMN_BITS + INDEX_BITS))
+                    | ((long) collected.get(offset + 1) << INDEX_BITS)
+                    | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) (keys[i] & BITS_MASK);
+        }
+        return order;
+    }
+
+    // huge documents only, boxes every index
+    private static int[] sortByComparator(IntArray collected, int count) {
+        Integer[] indices = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = i;
+        }
+        // stable, tokens at the same position keep the order they were collected in
+        Arrays.sort(indices, Comparator.<Integer>comparingInt(i -> collected.get(i * TOKEN_SIZE))
+                .thenComparingInt(i -> collected.get(i * TOKEN_SIZE + 1)));
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = indices[i];
+        }
+        return order;
+    }
+
+    private static int lowerBound(IntArray absolute, int count, int line) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (absolute.get(mid * TOKEN_SIZE) < line) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A single edit replacing everything between the common prefix and the common suffix.
+     */
+    private static List<SemanticTokensEdit> diff(IntArray previous, IntArray current) {
+        int previousSize = previous.size();
+        int currentSize = current.size();
+        int prefix = 0;
+        while (prefix < previousSize && prefix < currentSize && previous.get(prefix) == current.get(prefix)) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < previousSize - prefix && suffix < currentSize - prefix
+                && previous.get(previousSize - 1 - suffix) == current.get(currentSize - 1 - suffix)) {
+            suffix++;
+        }
+        int deleteCount = previousSize - prefix - suffix;
+        int insertCount = currentSize - prefix - suffix;
+        if (deleteCount == 0 && insertCount == 0) {
+            return Collections.emptyList();
+        }
+        IntArray data = new IntArray(insertCount);
+        for (int i = prefix; i < prefix + insertCount; i++) {
+            data.add(current.get(i));
+        }
+        return List.of(new SemanticTokensEdit(prefix, deleteCount, data.asList()));
+    }
+
+    private static int getTokenType(Symbol symbol) {
+        return switch (symbol.getKind()) {
+            case CLASS, IMPORT -> TokenType.CLASS.ordinal();
+            case VARIABLE -> TokenType.VARIABLE.ordinal();
+            case PARAMETER -> TokenType.PARAMETER.ordinal();
+            case FUNCTION -> TokenType.FUNCTION.ordinal();
+            default -> -1;
+        };
+    }
+
+    /**
+     * @param envVersion the version of the environment the tokens were collected from
+     * @param absolute  line, column, length, type and modifiers of each token, sorted by position
+     * @param encoded   the same tokens in the relative encoding of the protocol
+     */
+    private record Tokens(long envVersion, String resultId, IntArray absolute, IntArray encoded) {}
+
+    private static final class Encoder {
+        private final IntArray data;
+        private int prevLine = Range.FIRST_LINE;
+        private int prevColumn = Range.FIRST_COLUMN;
+
+        Encoder(IntArray data) {
+            this.data = data;
+        }
+
+        void push(int line, int column, int length, int tokenType, int tokenModifiers) {
+            data.add(line - prevLine);
+            data.add(line == prevLine ? column - prevColumn : column);
+            data.add(length);
+            data.add(tokenType);
+            data.add(tokenModifiers);
+            prevLine = line;
+            prevColumn = column;
+        }
     }
 
 }
@@ -0,0 +1,198 @@
+package raylras.zen.lsp.provider;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.TerminalNode;
+import org.eclipse.lsp4j.*;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.eclipse.lsp4j.jsonrpc.messages.Tuple;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.parser.ZenScriptParser;
+import raylras.zen.model.parser.ZenScriptParser.*;
+import raylras.zen.model.resolve.SymbolResolver;
+import raylras.zen.model.resolve.TypeResolver;
+import raylras.zen.model.symbol.Executable;
+import raylras.zen.model.symbol.ImportSymbol;
+import raylras.zen.model.symbol.ParameterSymbol;
+import raylras.zen.model.symbol.Symbol;
+import raylras.zen.model.type.AnyType;
+import raylras.zen.model.type.MemberValidator;
+import raylras.zen.model.type.Type;
+import raylras.zen.util.CSTNodes;
+import raylras.zen.util.Executables;
+import raylras.zen.util.Position;
+import raylras.zen.util.Range;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public final class SignatureHelpProvider {
+
+    private SignatureHelpProvider() {}
+
+    /**
+     * signature help has four steps:
+     * 1. find the innermost call whose parentheses enclose the cursor
+     * 2. count the commas of its argument list before the cursor to get the active parameter
+     * 3. get the overloads of the callee, served from the overload cache of the environment
+     * 4. pick the active signature by matching the arguments before the active one
+     */
+    public static Optional<SignatureHelp> signatureHelp(CompilationUnit unit, SignatureHelpParams params) {
+        Position cursor = Position.of(params.getPosition());
+        CallExprContext callExpr = findEnclosingCall(unit, cursor);
+        if (callExpr == null) {
+            return Optional.empty();
+        }
+
+        String name = getCalleeName(callExpr.expression());
+        List<Executable> overloads = getOverloads(callExpr.expression(), unit);
+        if (overloads.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<ExpressionContext> arguments = getArguments(callExpr);
+        int activeParameter = getActiveParameter(callExpr, cursor);
+        List<Type> argumentTypes = new ArrayList<>(activeParameter);
+        for (int i = 0; i < activeParameter && i < arguments.size(); i++) {
+            argumentTypes.add(TypeResolver.getType(arguments.get(i), unit).orElse(AnyType.INSTANCE));
+        }
+
+        List<SignatureInformation> signatures = new ArrayList<>(overloads.size());
+        for (Executable executable : overloads) {
+            signatures.add(toSignatureInformation(name, executable));
+        }
+        SignatureHelp signatureHelp = new SignatureHelp(signatures, getActiveSignature(overloads, argumentTypes, activeParameter, unit), activeParameter);
+        return Optional.of(signatureHelp);
+    }
+
+    public static CompletableFuture<SignatureHelp> empty() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private static CallExprContext findEnclosingCall(CompilationUnit unit, Position cursor) {
+        if (unit.getParseTree() == null) {
+            return null;
+        }
+        for (ParseTree cst : CSTNodes.getCstStackAtPosition(unit.getParseTree(), cursor)) {
+            if (cst instanceof CallExprContext callExpr && isInsideParentheses(callExpr, cursor)) {
+                return callExpr;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isInsideParentheses(CallExprContext callExpr, Position cursor) {
+        TerminalNode parenOpen = callExpr.getToken(ZenScriptParser.PAREN_OPEN, 0);
+        if (parenOpen == null || isBefore(cursor, Range.of(parenOpen).end())) {
+            return false;
+        }
+        TerminalNode parenClose = callExpr.getToken(ZenScriptParser.PAREN_CLOSE, 0);
+        // the closing parenthesis is missing while typing
+        return parenClose == null || parenClose.getSymbol().getTokenIndex() < 0 || !isBefore(Range.of(parenClose).start(), cursor);
+    }
+
+    private static List<ExpressionContext> getArguments(CallExprContext callExpr) {
+        if (callExpr.expressionList() == null) {
+            return Collections.emptyList();
+        }
+        return callExpr.expressionList().expression();
+    }
+
+    private static int getActiveParameter(CallExprContext callExpr, Position cursor) {
+        ExpressionListContext expressionList = callExpr.expressionList();
+        if (expressionList == null) {
+            return 0;
+        }
+        int activeParameter = 0;
+        for (TerminalNode comma : expressionList.getTokens(ZenScriptParser.COMMA)) {
+            if (!isBefore(cursor, Range.of(comma).end())) {
+                activeParameter++;
+            }
+        }
+        return activeParameter;
+    }
+
+    private static String getCalleeName(ExpressionContext callee) {
+        if (callee instanceof MemberAccessExprContext memberAccessExpr && memberAccessExpr.simpleName() != null) {
+            return memberAccessExpr.simpleName().getText();
+        }
+        if (callee instanceof SimpleNameExprContext simpleNameExpr) {
+            return simpleNameExpr.simpleName().getText();
+        }
+        return "function";
+    }
+
+    private static List<Executable> getOverloads(ExpressionContext callee, CompilationUnit unit) {
+        if (callee instanceof MemberAccessExprContext memberAccessExpr && memberAccessExpr.simpleName() != null) {
+            return TypeResolver.getType(memberAccessExpr.expression(), unit)
+                    .map(owner -> Executables.getOverloads(owner, memberAccessExpr.simpleName().getText(), unit.getEnv()))
+                    .orElseGet(Collections::emptyList);
+        }
+        if (callee instanceof SimpleNameExprContext simpleNameExpr) {
+            // deduplicated like the members of a type, an overload hides those of the same signature found after it
+            MemberValidator validator = new MemberValidator();
+            for (Symbol symbol : SymbolResolver.lookupSymbol(simpleNameExpr.simpleName(), unit)) {
+                if (symbol instanceof ImportSymbol importSymbol) {
+                    validator.addAll(importSymbol.getTargets());
+                } else {
+                    validator.add(symbol);
+                }
+            }
+            List<Executable> overloads = new ArrayList<>();
+            for (Symbol symbol : validator) {
+                if (symbol instanceof Executable executable) {
+                    overloads.add(executable);
+                }
+            }
+            return overloads;
+        }
+        return Collections.emptyList();
+    }
+
+    private static int getActiveSignature(List<Executable> overloads, List<Type> argumentTypes, int activeParameter, CompilationUnit unit) {
+        List<Executable> candidates = overloads.stream()
+                .filter(executable -> hasParameter(executable, activeParameter))
+                .toList();
+        if (candidates.isEmpty()) {
+            candidates = overloads;
+        }
+        Executable bestMatch = Executables.findBestMatch(candidates, argumentTypes, unit.getEnv());
+        return Math.max(0, overloads.indexOf(bestMatch));
+    }
+
+    private static boolean hasParameter(Executable executable, int index) {
+        List<ParameterSymbol> parameterList = executable.getParameterList();
+        if (index < parameterList.size()) {
+            return true;
+        }
+        return !parameterList.isEmpty() && parameterList.get(parameterList.size() - 1).isVararg();
+    }
+
+    private static SignatureInformation toSignatureInformation(String name, Executable executable) {
+        StringBuilder label = new StringBuilder(name).append('(');
+        List<ParameterInformation> parameters = new ArrayList<>();
+        List<ParameterSymbol> parameterList = executable.getParameterList();
+        for (int i = 0; i < parameterList.size(); i++) {
+            if (i > 0) {
+                label.append(", ");
+            }
+            ParameterSymbol parameter = parameterList.get(i);
+            int start = label.length();
+            label.append(parameter.getName()).append(" as ").append(parameter.getType().getSimpleTypeName());
+            ParameterInformation parameterInformation = new ParameterInformation();
+            parameterInformation.setLabel(Either.forRight(Tuple.two(start, label.length())));
+            parameters.add(parameterInformation);
+        }
+        label.append(") as ").append(executable.getReturnType().getSimpleTypeName());
+        SignatureInformation signature = new SignatureInformation(label.toString());
+        signature.setParameters(parameters);
+        return signature;
+    }
+
+    private static boolean isBefore(Position a, Position b) {
+        return a.line() < b.line() || (a.line() == b.line() && a.column() < b.column());
+    }
+
+}
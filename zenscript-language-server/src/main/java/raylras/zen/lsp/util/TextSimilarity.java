@@ -2,6 +2,8 @@ package raylras.zen.lsp.util;
 
 public class TextSimilarity {
 
+    public static final int NO_MATCH = Integer.MIN_VALUE;
+
     /**
      * Checks if {@code s} is a subsequence of {@code t}.
      * @param s subsequence
@@ -33,4 +35,61 @@ public class TextSimilarity {
         return false;
     }
 
+    /**
+     * Scores how well {@code pattern} matches {@code candidate}, ignoring case.
+     * Matches at the start, at word boundaries and in a row score higher,
+     * gaps between matched characters and unmatched trailing characters score lower.
+     * @param pattern the text typed so far
+     * @param candidate the text to be matched
+     * @return the score, or {@link #NO_MATCH} if {@code pattern} is not a subsequence of {@code candidate}
+     */
+    public static int fuzzyScore(String pattern, String candidate) {
+        int pLen = pattern.length();
+        int cLen = candidate.length();
+        if (pLen == 0) {
+            return 0;
+        }
+        if (pLen > cLen) {
+            return NO_MATCH;
+        }
+
+        int score = 0;
+        int i = 0;
+        int prevMatch = -2;
+        for (int j = 0; j < cLen && i < pLen; j++) {
+            char p = pattern.charAt(i);
+            char c = candidate.charAt(j);
+            if (Character.toLowerCase(p) != Character.toLowerCase(c)) {
+                continue;
+            }
+            score += 1;
+            if (p == c) {
+                score += 1;
+            }
+            if (j == 0) {
+                score += 8;
+            } else if (isWordStart(candidate, j)) {
+                score += 6;
+            }
+            if (prevMatch == j - 1) {
+                score += 4;
+            } else if (prevMatch >= 0) {
+                score -= Math.min(j - prevMatch - 1, 3);
+            }
+            prevMatch = j;
+            i++;
+        }
+        if (i < pLen) {
+            return NO_MATCH;
+        }
+        // prefer shorter candidates among equal matches
+        return score * 4 - Math.min(cLen - pLen, 16) + 16;
+    }
+
+    private static boolean isWordStart(String s, int index) {
+        char prev = s.charAt(index - 1);
+        char c = s.charAt(index);
+        return !Character.isLetterOrDigit(prev) || (Character.isLowerCase(prev) && Character.isUpperCase(c));
+    }
+
 }
@@ -0,0 +1,57 @@
+package raylras.zen.lsp.provider;
+
+import org.eclipse.lsp4j.*;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class CodeActionProviderTest {
+
+    @Test
+    void suggestsImportsWithinTheRequestedRangeAndDiagnostics() {
+        CompilationUnit unit = load();
+        Assertions.assertEquals(List.of("import scripts.Lib.Foo;\n"), imports(unit, line(0), List.of(), null));
+
+        List<Diagnostic> diagnostics = List.of(new Diagnostic(line(2), "unresolved"));
+        Assertions.assertEquals(List.of("import scripts.Lib.Foo;\n", "import scripts.Lib.Bar;\n", "import scripts.Lib.Foo;\nimport scripts.Lib.Bar;\n"),
+                imports(unit, line(0), diagnostics, null));
+
+        Assertions.assertEquals(List.of(), imports(unit, line(1), List.of(), null));
+    }
+
+    @Test
+    void honorsTheRequestedKinds() {
+        CompilationUnit unit = load();
+        Assertions.assertEquals(List.of(), imports(unit, line(0), List.of(), List.of(CodeActionKind.Refactor)));
+        Assertions.assertEquals(List.of("import scripts.Lib.Foo;\n"), imports(unit, line(0), List.of(), List.of(CodeActionKind.QuickFix)));
+    }
+
+    private static CompilationUnit load() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit lib = env.createUnit(env.getRoot().resolve("Lib.zs"));
+        Compilations.load(lib, "zenClass Foo {}\nzenClass Bar {}\n");
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Actions.zs"));
+        Compilations.load(unit, "print(Foo);\nprint(1);\nprint(Bar);\n");
+        return unit;
+    }
+
+    private static List<String> imports(CompilationUnit unit, Range range, List<Diagnostic> diagnostics, List<String> only) {
+        CodeActionContext context = new CodeActionContext(diagnostics, only);
+        CodeActionParams params = new CodeActionParams(new TextDocumentIdentifier(unit.getPath().toUri().toString()), range, context);
+        return CodeActionProvider.codeAction(unit, params).orElse(List.of()).stream()
+                .map(Either::getRight)
+                .map(action -> action.getEdit().getChanges().get(params.getTextDocument().getUri()).get(0).getNewText())
+                .toList();
+    }
+
+    private static Range line(int line) {
+        return new Range(new Position(line, 0), new Position(line, 10));
+    }
+
+}
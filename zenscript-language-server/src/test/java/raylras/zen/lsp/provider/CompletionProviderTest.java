@@ -0,0 +1,153 @@
+package raylras.zen.lsp.provider;
+
+import org.eclipse.lsp4j.CompletionCapabilities;
+import org.eclipse.lsp4j.CompletionItem;
+import org.eclipse.lsp4j.CompletionItemCapabilities;
+import org.eclipse.lsp4j.CompletionItemLabelDetails;
+import org.eclipse.lsp4j.CompletionItemResolveSupportCapabilities;
+import org.eclipse.lsp4j.CompletionList;
+import org.eclipse.lsp4j.CompletionParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+class CompletionProviderTest {
+
+    @Test
+    void ranksMatchingItemsFirst() {
+        CompilationUnit unit = load("Ranking.zs", """
+                var xfoo = 1;
+                var foo = 2;
+                var bar = 3;
+                var fooBar = 4;
+                print(foo);
+                """);
+        CompletionList list = complete(unit, 4, 9);
+        Assertions.assertFalse(list.isIncomplete());
+        List<String> labels = list.getItems().stream().map(CompletionItem::getLabel).toList();
+        Assertions.assertEquals(List.of("foo", "fooBar", "xfoo"), labels.subList(0, 3));
+        Assertions.assertFalse(labels.contains("bar"));
+        Assertions.assertEquals(List.of("0000", "0001", "0002"), list.getItems().subList(0, 3).stream().map(CompletionItem::getSortText).toList());
+    }
+
+    @Test
+    void capsTheNumberOfItems() {
+        StringBuilder source = new StringBuilder();
+        for (int i = 0; i < 250; i++) {
+            source.append("var item").append(i).append(" = ").append(i).append(";\n");
+        }
+        source.append("print(item);\n");
+        CompilationUnit unit = load("Capping.zs", source.toString());
+        CompletionList list = complete(unit, 250, 10);
+        Assertions.assertTrue(list.isIncomplete());
+        Assertions.assertEquals(200, list.getItems().size());
+    }
+
+    @Test
+    void resolvesItemsUnderTheReadLock() throws Exception {
+        CompilationUnit unit = load("Resolve.zs", """
+                function foo(a as int) as string { return ""; }
+                print(foo);
+                """);
+        CompletionItem item = complete(unit, 1, 9).getItems().get(0);
+        Assertions.assertEquals("foo", item.getLabel());
+        Assertions.assertNull(item.getLabelDetails());
+
+        CompletableFuture<Optional<CompletionItem>> resolved;
+        unit.getEnv().writeLock().lock();
+        try {
+            resolved = CompletableFuture.supplyAsync(() -> CompletionProvider.resolveCompletionItem(item));
+            Thread.sleep(100);
+            Assertions.assertFalse(resolved.isDone());
+        } finally {
+            unit.getEnv().writeLock().unlock();
+        }
+        CompletionItem resolvedItem = resolved.get(5, TimeUnit.SECONDS).orElseThrow();
+        Assertions.assertEquals("(a as int) as string", resolvedItem.getDetail());
+        Assertions.assertNull(resolvedItem.getLabelDetails());
+    }
+
+    @Test
+    void resolvesLabelDetailsOnlyIfTheClientTakesThem() {
+        CompilationUnit unit = load("LabelDetails.zs", """
+                function foo(a as int) as string { return ""; }
+                print(foo);
+                """);
+        CompletionCapabilities capabilities = new CompletionCapabilities(new CompletionItemCapabilities());
+        capabilities.getCompletionItem().setResolveSupport(new CompletionItemResolveSupportCapabilities(List.of("detail", "labelDetails")));
+        CompletionProvider.setClientCapabilities(capabilities);
+        try {
+            CompletionItem item = complete(unit, 1, 9).getItems().get(0);
+            CompletionItemLabelDetails labelDetails = CompletionProvider.resolveCompletionItem(item).orElseThrow().getLabelDetails();
+            Assertions.assertEquals("(a as int)", labelDetails.getDetail());
+            Assertions.assertEquals("string", labelDetails.getDescription());
+        } finally {
+            CompletionProvider.setClientCapabilities(null);
+        }
+    }
+
+    @Test
+    void dropsItemsOfChangedOrReleasedUnits() {
+        CompilationUnit unit = load("Release.zs", "var foo = 1;\nprint(foo);\n");
+        CompletionItem outdated = complete(unit, 1, 9).getItems().get(0);
+        Compilations.load(unit, "var foo = 1;\nprint(foo);\n");
+        Assertions.assertTrue(CompletionProvider.resolveCompletionItem(outdated).isEmpty());
+
+        // the document is resolved after being changed, the symbol of another unit is still there
+        CompilationUnit lib = unit.getEnv().createUnit(unit.getEnv().getRoot().resolve("Lib.zs"));
+        Compilations.load(lib, "global bar as int = 1;");
+        CompletionItem other = complete(unit, 1, 6).getItems().stream().filter(it -> it.getLabel().equals("bar")).findFirst().orElseThrow();
+        Compilations.load(unit, "var foo = 2;\nprint(foo);\n");
+        Assertions.assertEquals("int", CompletionProvider.resolveCompletionItem(other).orElseThrow().getDetail());
+        unit.getEnv().removeUnit(lib.getPath());
+        Assertions.assertTrue(CompletionProvider.resolveCompletionItem(other).isEmpty());
+
+        CompletionItem released = complete(unit, 1, 9).getItems().get(0);
+        Assertions.assertTrue(CompletionProvider.resolveCompletionItem(released).isPresent());
+        CompletionProvider.release(unit.getEnv());
+        Assertions.assertTrue(CompletionProvider.resolveCompletionItem(released).isEmpty());
+    }
+
+    @Test
+    void resolvesMembersAgainOnceTheReceiverTypeChanged() {
+        CompilationUnit unit = load("Members.zs", "var a as bool[] = [];\nprint(a.);\n");
+        Assertions.assertTrue(labels(complete(unit, 1, 8)).contains("length"));
+
+        Compilations.load(unit, "var a as bool[] = [];\nprint(a.le);\n");
+        Assertions.assertEquals(List.of("length"), labels(complete(unit, 1, 10)));
+
+        // the receiver is the same text at the same offset, but of another type
+        Compilations.load(unit, "var a as string = \"\";\nprint(a.le);\n");
+        Assertions.assertFalse(CompletionProvider.completion(unit, params(unit, 1, 10)).map(it -> labels(it.getRight())).orElse(List.of()).contains("length"));
+    }
+
+    static CompilationUnit load(String fileName, String source) {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve(fileName));
+        Compilations.load(unit, source);
+        return unit;
+    }
+
+    static CompletionList complete(CompilationUnit unit, int line, int character) {
+        return CompletionProvider.completion(unit, params(unit, line, character)).orElseThrow().getRight();
+    }
+
+    static CompletionParams params(CompilationUnit unit, int line, int character) {
+        return new CompletionParams(new TextDocumentIdentifier(unit.getPath().toUri().toString()), new Position(line, character));
+    }
+
+    static List<String> labels(CompletionList list) {
+        return list.getItems().stream().map(CompletionItem::getLabel).toList();
+    }
+
+}
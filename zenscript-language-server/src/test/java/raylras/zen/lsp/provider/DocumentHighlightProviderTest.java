@@ -0,0 +1,46 @@
+package raylras.zen.lsp.provider;
+
+import org.eclipse.lsp4j.DocumentHighlight;
+import org.eclipse.lsp4j.DocumentHighlightKind;
+import org.eclipse.lsp4j.DocumentHighlightParams;
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class DocumentHighlightProviderTest {
+
+    @Test
+    void highlightsReadsAndWritesOfTheSameSymbol() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Highlight.zs"));
+        Compilations.load(unit, """
+                var foo = 1;
+                foo = 2;
+                print(foo);
+                function f() {
+                    var foo = 3;
+                    print(foo);
+                }
+                """);
+
+        List<? extends DocumentHighlight> highlights = DocumentHighlightProvider.documentHighlight(unit, params(unit, 2, 7)).orElseThrow();
+        Assertions.assertEquals(List.of(0, 1, 2), highlights.stream().map(it -> it.getRange().getStart().getLine()).toList());
+        Assertions.assertEquals(List.of(DocumentHighlightKind.Write, DocumentHighlightKind.Write, DocumentHighlightKind.Read),
+                highlights.stream().map(DocumentHighlight::getKind).toList());
+
+        List<? extends DocumentHighlight> shadowed = DocumentHighlightProvider.documentHighlight(unit, params(unit, 5, 11)).orElseThrow();
+        Assertions.assertEquals(List.of(4, 5), shadowed.stream().map(it -> it.getRange().getStart().getLine()).toList());
+    }
+
+    private static DocumentHighlightParams params(CompilationUnit unit, int line, int character) {
+        return new DocumentHighlightParams(new TextDocumentIdentifier(unit.getPath().toUri().toString()), new Position(line, character));
+    }
+
+}
@@ -0,0 +1,35 @@
+package raylras.zen.lsp.provider;
+
+import org.eclipse.lsp4j.DocumentSymbol;
+import org.eclipse.lsp4j.DocumentSymbolParams;
+import org.eclipse.lsp4j.SymbolInformation;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class DocumentSymbolProviderTest {
+
+    @Test
+    void reusesSymbolsUntilReloaded() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Outline.zs"));
+        Compilations.load(unit, "function foo() {}");
+        DocumentSymbolParams params = new DocumentSymbolParams(new TextDocumentIdentifier(unit.getPath().toUri().toString()));
+
+        List<Either<SymbolInformation, DocumentSymbol>> first = DocumentSymbolProvider.documentSymbol(unit, params).orElseThrow();
+        Assertions.assertSame(first, DocumentSymbolProvider.documentSymbol(unit, params).orElseThrow());
+        Assertions.assertEquals(List.of("foo"), first.stream().map(it -> it.getRight().getName()).toList());
+
+        Compilations.load(unit, "function foo() {}\nfunction bar() {}");
+        List<Either<SymbolInformation, DocumentSymbol>> reloaded = DocumentSymbolProvider.documentSymbol(unit, params).orElseThrow();
+        Assertions.assertEquals(List.of("foo", "bar"), reloaded.stream().map(it -> it.getRight().getName()).toList());
+    }
+
+}
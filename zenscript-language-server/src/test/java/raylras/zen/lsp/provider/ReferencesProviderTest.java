@@ -0,0 +1,68 @@
+package raylras.zen.lsp.provider;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+import raylras.zen.model.parser.ZenScriptParser;
+import raylras.zen.model.symbol.Operator;
+import raylras.zen.model.symbol.OperatorFunctionSymbol;
+import raylras.zen.model.symbol.SymbolFactory;
+import raylras.zen.model.type.IntRangeType;
+import raylras.zen.model.type.IntType;
+import raylras.zen.model.type.StringType;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class ReferencesProviderTest {
+
+    @Test
+    void searchesAsAndToOperators() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Operators.zs"));
+        Compilations.load(unit, """
+                var to = 1 as string;
+                for i in 0 to 10 {
+                    print(to);
+                }
+                """);
+
+        List<ParseTree> casts = search(unit, (OperatorFunctionSymbol) SymbolFactory.builtinSymbols()
+                .operator(Operator.AS, StringType.INSTANCE)
+                .build().get(0));
+        Assertions.assertEquals(1, casts.size());
+        Assertions.assertInstanceOf(ZenScriptParser.TypeCastExprContext.class, casts.get(0).getParent());
+
+        List<ParseTree> ranges = search(unit, (OperatorFunctionSymbol) SymbolFactory.builtinSymbols()
+                .operator(Operator.RANGE, IntRangeType.INSTANCE, params -> params.parameter("value", IntType.INSTANCE))
+                .build().get(0));
+        Assertions.assertEquals(1, ranges.size());
+        Assertions.assertInstanceOf(ZenScriptParser.IntRangeExprContext.class, ranges.get(0).getParent());
+    }
+
+    @Test
+    void recordsOnlyNamesAsIdentifiers() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve("Operators.zs"));
+        Compilations.load(unit, """
+                var to = 1 as string;
+                var found = "a" in "abc" || "b" has "c";
+                """);
+        Assertions.assertFalse(unit.getOccurrenceTable().contains("as"));
+        Assertions.assertFalse(unit.getOccurrenceTable().contains("in"));
+        Assertions.assertFalse(unit.getOccurrenceTable().contains("has"));
+        Assertions.assertEquals(1, unit.getOccurrenceTable().count("to"));
+        Assertions.assertTrue(unit.getOccurrenceTable().contains(ZenScriptParser.TO));
+    }
+
+    private static List<ParseTree> search(CompilationUnit unit, OperatorFunctionSymbol operator) {
+        return ReferencesProvider.searchPossible(
+                ReferencesProvider.getSymbolSearchRule(operator),
+                ReferencesProvider.getSearchTokenTypes(operator),
+                unit.getOccurrenceTable());
+    }
+
+}
@@ -0,0 +1,132 @@
+package raylras.zen.lsp.provider;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.RenameParams;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.eclipse.lsp4j.TextEdit;
+import org.eclipse.lsp4j.WorkspaceEdit;
+import org.eclipse.lsp4j.jsonrpc.ResponseErrorException;
+import org.eclipse.lsp4j.jsonrpc.messages.ResponseErrorCode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+
+class RenameProviderTest {
+
+    CompilationEnvironment env;
+    CompilationUnit lib;
+    CompilationUnit main;
+
+    @BeforeEach
+    void beforeEach() {
+        env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        lib = load("Lib.zs", "global foo as int = 1;");
+        main = load("Main.zs", """
+                print(foo);
+                print(foo + foo);
+                """);
+    }
+
+    @Test
+    void renamesDeclarationAndUsagesAcrossUnits() {
+        WorkspaceEdit edit = RenameProvider.rename(lib, params(lib, 0, 8, "bar")).orElseThrow();
+        List<TextEdit> libEdits = edit.getChanges().get(uri(lib));
+        List<TextEdit> mainEdits = edit.getChanges().get(uri(main));
+        Assertions.assertEquals(1, libEdits.size());
+        Assertions.assertEquals(3, mainEdits.size());
+        Assertions.assertTrue(mainEdits.stream().allMatch(it -> it.getNewText().equals("bar")));
+    }
+
+    @Test
+    void renamesStaticAcrossUnits() {
+        CompilationUnit statics = load("Statics.zs", "static baz as int = 1;");
+        CompilationUnit user = load("User.zs", """
+                import scripts.Statics.baz;
+                print(baz);
+                """);
+        WorkspaceEdit edit = RenameProvider.rename(statics, params(statics, 0, 8, "qux")).orElseThrow();
+        Assertions.assertEquals(1, edit.getChanges().get(uri(statics)).size());
+        Assertions.assertEquals(List.of(new Position(0, 23), new Position(1, 6)), starts(edit.getChanges().get(uri(user))));
+    }
+
+    @Test
+    void renamesClassMethodAcrossUnits() {
+        CompilationUnit classes = load("Classes.zs", """
+                zenClass Foo {
+                    zenConstructor() {}
+                    function bar() as int { return 1; }
+                }
+                global instance as Foo = Foo();
+                """);
+        CompilationUnit user = load("User.zs", "print(instance.bar());");
+        WorkspaceEdit edit = RenameProvider.rename(classes, params(classes, 2, 14, "qux")).orElseThrow();
+        Assertions.assertEquals(1, edit.getChanges().get(uri(classes)).size());
+        Assertions.assertEquals(List.of(new Position(0, 15)), starts(edit.getChanges().get(uri(user))));
+    }
+
+    @Test
+    void renamesClassFieldAcrossUnits() {
+        CompilationUnit classes = load("Classes.zs", """
+                zenClass Foo {
+                    var bar as int = 1;
+                    zenConstructor() {}
+                }
+                global instance as Foo = Foo();
+                """);
+        CompilationUnit user = load("User.zs", "print(instance.bar);");
+        WorkspaceEdit edit = RenameProvider.rename(classes, params(classes, 1, 9, "qux")).orElseThrow();
+        Assertions.assertEquals(1, edit.getChanges().get(uri(classes)).size());
+        Assertions.assertEquals(List.of(new Position(0, 15)), starts(edit.getChanges().get(uri(user))));
+    }
+
+    @Test
+    void renamesAliasWithinItsUnit() {
+        CompilationUnit user = load("User.zs", """
+                import scripts.Lib.foo as baz;
+                print(baz);
+                """);
+        WorkspaceEdit edit = RenameProvider.rename(user, params(user, 1, 7, "qux")).orElseThrow();
+        Assertions.assertEquals(List.of(uri(user)), List.copyOf(edit.getChanges().keySet()));
+        Assertions.assertEquals(List.of(new Position(0, 26), new Position(1, 6)), starts(edit.getChanges().get(uri(user))));
+
+        // renaming the target keeps the alias
+        edit = RenameProvider.rename(lib, params(lib, 0, 8, "bar")).orElseThrow();
+        Assertions.assertEquals(List.of(new Position(0, 19)), starts(edit.getChanges().get(uri(user))));
+    }
+
+    @Test
+    void rejectsInvalidName() {
+        for (String invalidName : List.of("1foo", "foo bar", "function")) {
+            ResponseErrorException e = Assertions.assertThrows(ResponseErrorException.class,
+                    () -> RenameProvider.rename(lib, params(lib, 0, 8, invalidName)));
+            Assertions.assertEquals(ResponseErrorCode.InvalidParams.getValue(), e.getResponseError().getCode());
+            Assertions.assertTrue(e.getResponseError().getMessage().contains(invalidName));
+        }
+    }
+
+    private static List<Position> starts(List<TextEdit> edits) {
+        return edits.stream().map(it -> it.getRange().getStart()).sorted(Comparator.comparingInt(Position::getLine).thenComparingInt(Position::getCharacter)).toList();
+    }
+
+    private CompilationUnit load(String fileName, String source) {
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve(fileName));
+        Compilations.load(unit, source);
+        return unit;
+    }
+
+    private static RenameParams params(CompilationUnit unit, int line, int character, String newName) {
+        return new RenameParams(new TextDocumentIdentifier(uri(unit)), new Position(line, character), newName);
+    }
+
+    private static String uri(CompilationUnit unit) {
+        return unit.getPath().toUri().toString();
+    }
+
+}
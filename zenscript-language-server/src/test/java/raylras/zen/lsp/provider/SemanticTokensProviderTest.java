@@ -0,0 +1,102 @@
+package raylras.zen.lsp.provider;
+
+import org.eclipse.lsp4j.*;
+import org.eclipse.lsp4j.jsonrpc.messages.Either;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+class SemanticTokensProviderTest {
+
+    private static final String SOURCE = """
+            var foo = 1;
+            print(foo);
+            function bar() {}
+            bar();
+            """;
+
+    @Test
+    void encodesTokensInPositionOrder() {
+        CompilationUnit unit = load("Tokens.zs", SOURCE);
+        SemanticTokens tokens = SemanticTokensProvider.semanticTokensFull(unit, new SemanticTokensParams(identifier(unit))).orElseThrow();
+        Assertions.assertEquals(List.of(0, 1, 2, 3), lines(tokens.getData()));
+        Assertions.assertEquals(List.of(4, 6, 9, 0), columns(tokens.getData()));
+    }
+
+    @Test
+    void diffsAgainstThePreviousResult() {
+        CompilationUnit unit = load("TokensDelta.zs", SOURCE);
+        SemanticTokens full = SemanticTokensProvider.semanticTokensFull(unit, new SemanticTokensParams(identifier(unit))).orElseThrow();
+
+        Either<SemanticTokens, SemanticTokensDelta> unchanged = SemanticTokensProvider.semanticTokensFullDelta(unit, new SemanticTokensDeltaParams(identifier(unit), full.getResultId())).orElseThrow();
+        Assertions.assertTrue(unchanged.isRight());
+        Assertions.assertTrue(unchanged.getRight().getEdits().isEmpty());
+
+        Compilations.load(unit, SOURCE + "print(foo);\n");
+        Either<SemanticTokens, SemanticTokensDelta> changed = SemanticTokensProvider.semanticTokensFullDelta(unit, new SemanticTokensDeltaParams(identifier(unit), full.getResultId())).orElseThrow();
+        Assertions.assertTrue(changed.isRight());
+        Assertions.assertNotEquals(full.getResultId(), changed.getRight().getResultId());
+        Assertions.assertFalse(changed.getRight().getEdits().isEmpty());
+
+        Either<SemanticTokens, SemanticTokensDelta> unknown = SemanticTokensProvider.semanticTokensFullDelta(unit, new SemanticTokensDeltaParams(identifier(unit), "unknown")).orElseThrow();
+        Assertions.assertTrue(unknown.isLeft());
+        Assertions.assertEquals(List.of(0, 1, 2, 3, 4), lines(unknown.getLeft().getData()));
+    }
+
+    @Test
+    void encodesOnlyTheRequestedLines() {
+        CompilationUnit unit = load("TokensRange.zs", SOURCE);
+        SemanticTokensRangeParams params = new SemanticTokensRangeParams(identifier(unit), new Range(new Position(1, 0), new Position(2, 0)));
+        SemanticTokens tokens = SemanticTokensProvider.semanticTokensRange(unit, params).orElseThrow();
+        // the first token is relative to the start of the document
+        Assertions.assertEquals(List.of(1, 2), lines(tokens.getData()));
+        Assertions.assertEquals(List.of(6, 9), columns(tokens.getData()));
+    }
+
+    @Test
+    void keepsTokensBeyondThePackedColumns() {
+        int column = (1 << 20) + 6;
+        CompilationUnit unit = load("TokensWide.zs", "var foo = 1;\nprint(foo);" + " ".repeat(column - 6 - 11) + "print(foo);\n");
+        SemanticTokens tokens = SemanticTokensProvider.semanticTokensFull(unit, new SemanticTokensParams(identifier(unit))).orElseThrow();
+        Assertions.assertEquals(List.of(0, 1, 1), lines(tokens.getData()));
+        Assertions.assertEquals(List.of(4, 6, column), columns(tokens.getData()));
+    }
+
+    private static CompilationUnit load(String fileName, String source) {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve(fileName));
+        Compilations.load(unit, source);
+        return unit;
+    }
+
+    private static TextDocumentIdentifier identifier(CompilationUnit unit) {
+        return new TextDocumentIdentifier(unit.getPath().toUri().toString());
+    }
+
+    private static List<Integer> lines(List<Integer> data) {
+        List<Integer> lines = new ArrayList<>();
+        int line = 0;
+        for (int i = 0; i < data.size(); i += 5) {
+            line += data.get(i);
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    private static List<Integer> columns(List<Integer> data) {
+        List<Integer> columns = new ArrayList<>();
+        int column = 0;
+        for (int i = 0; i < data.size(); i += 5) {
+            column = (data.get(i) == 0 && i > 0) ? column + data.get(i + 1) : data.get(i + 1);
+            columns.add(column);
+        }
+        return columns;
+    }
+
+}
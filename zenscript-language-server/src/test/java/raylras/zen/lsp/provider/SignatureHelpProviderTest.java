@@ -0,0 +1,77 @@
+package raylras.zen.lsp.provider;
+
+import org.eclipse.lsp4j.Position;
+import org.eclipse.lsp4j.SignatureHelp;
+import org.eclipse.lsp4j.SignatureHelpParams;
+import org.eclipse.lsp4j.SignatureInformation;
+import org.eclipse.lsp4j.TextDocumentIdentifier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import raylras.zen.model.CompilationEnvironment;
+import raylras.zen.model.CompilationUnit;
+import raylras.zen.model.Compilations;
+
+import java.nio.file.Path;
+import java.util.List;
+
+class SignatureHelpProviderTest {
+
+    @Test
+    void omitsOverriddenInterfaceMethods() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        load(env, "IBase.dzs", """
+                zenClass IBase {
+                    function name() as string;
+                    function name(suffix as string) as string;
+                }
+                """);
+        load(env, "Derived.dzs", """
+                zenClass Derived extends scripts.IBase {
+                    function name() as string;
+                }
+                """);
+        CompilationUnit main = load(env, "Main.zs", """
+                function test(d as scripts.Derived) {
+                    d.name();
+                }
+                """);
+
+        SignatureHelp help = SignatureHelpProvider.signatureHelp(main, params(main, 1, 11)).orElseThrow();
+        Assertions.assertEquals(List.of("name() as string", "name(suffix as string) as string"),
+                help.getSignatures().stream().map(SignatureInformation::getLabel).toList());
+        // the only overload taking a first argument
+        Assertions.assertEquals(1, help.getActiveSignature());
+        Assertions.assertEquals(0, help.getActiveParameter());
+    }
+
+    @Test
+    void followsImportsOfFunctions() {
+        CompilationEnvironment env = new CompilationEnvironment(Path.of("test-env", "scripts"));
+        load(env, "Lib.zs", """
+                function greet(name as string, times as int) as string {
+                    return name;
+                }
+                """);
+        CompilationUnit main = load(env, "Main.zs", """
+                import scripts.Lib.greet;
+                greet("hi", 2);
+                """);
+
+        SignatureHelp help = SignatureHelpProvider.signatureHelp(main, params(main, 1, 12)).orElseThrow();
+        Assertions.assertEquals(List.of("greet(name as string, times as int) as string"),
+                help.getSignatures().stream().map(SignatureInformation::getLabel).toList());
+        Assertions.assertEquals(0, help.getActiveSignature());
+        Assertions.assertEquals(1, help.getActiveParameter());
+    }
+
+    private static CompilationUnit load(CompilationEnvironment env, String fileName, String source) {
+        CompilationUnit unit = env.createUnit(env.getRoot().resolve(fileName));
+        Compilations.load(unit, source);
+        return unit;
+    }
+
+    private static SignatureHelpParams params(CompilationUnit unit, int line, int character) {
+        return new SignatureHelpParams(new TextDocumentIdentifier(unit.getPath().toUri().toString()), new Position(line, character));
+    }
+
+}
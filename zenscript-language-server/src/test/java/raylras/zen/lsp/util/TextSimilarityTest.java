@@ -0,0 +1,26 @@
+package raylras.zen.lsp.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TextSimilarityTest {
+
+    @Test
+    void rejectsNonSubsequences() {
+        Assertions.assertEquals(TextSimilarity.NO_MATCH, TextSimilarity.fuzzyScore("xyz", "foobar"));
+        Assertions.assertEquals(TextSimilarity.NO_MATCH, TextSimilarity.fuzzyScore("foobar", "foo"));
+        Assertions.assertEquals(0, TextSimilarity.fuzzyScore("", "foo"));
+    }
+
+    @Test
+    void ranksPrefixesAndWordStartsHigher() {
+        int prefix = TextSimilarity.fuzzyScore("na", "nameGet");
+        int wordStart = TextSimilarity.fuzzyScore("na", "getName");
+        int inWord = TextSimilarity.fuzzyScore("na", "granary");
+        Assertions.assertTrue(prefix > wordStart);
+        Assertions.assertTrue(wordStart > inWord);
+        Assertions.assertTrue(TextSimilarity.fuzzyScore("foo", "foo") > TextSimilarity.fuzzyScore("foo", "fooBarBaz"));
+        Assertions.assertTrue(TextSimilarity.fuzzyScore("Foo", "Foo") > TextSimilarity.fuzzyScore("Foo", "foo"));
+    }
+
+}